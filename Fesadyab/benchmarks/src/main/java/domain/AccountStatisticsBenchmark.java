@@ -0,0 +1,71 @@
+package domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class AccountStatisticsBenchmark {
+    private static final int WINDOW = 1 << 16;
+    private static final int POOL_SIZE = 1 << 16;
+
+    @Param({"exact", "ewma", "approximate"})
+    String baseline;
+
+    @Param({"1000", "1000000"})
+    int accounts;
+
+    TransactionEngine engine;
+    int[] accountIds;
+    int[] amounts;
+    boolean[] debits;
+    int nextId;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        AccountStatistics statistics = switch (baseline) {
+            case "exact" -> new AccountAggregates();
+            case "ewma" -> new EwmaAccountStatistics(0.1);
+            case "approximate" -> new ApproximateAccountStatistics(0.0001, 0.01, 10_000);
+            default -> throw new IllegalArgumentException(baseline);
+        };
+        // Same bounded window for every baseline, so only the per-account state differs
+        engine = new TransactionEngine(new RingTransactionStore(WINDOW), statistics, List.of(new ExcessiveDebitRule()));
+
+        var random = new SplittableRandom(42);
+        accountIds = new int[POOL_SIZE];
+        amounts = new int[POOL_SIZE];
+        debits = new boolean[POOL_SIZE];
+        for (var i = 0; i < POOL_SIZE; i++) {
+            var txn = BenchmarkData.transaction(random, i, accounts, 0.5);
+            accountIds[i] = txn.accountId;
+            amounts[i] = txn.amount;
+            debits[i] = txn.isDebit;
+        }
+        nextId = 0;
+    }
+
+    @Benchmark
+    public int addTransactionAndDetectFraud() {
+        var i = nextId & (POOL_SIZE - 1);
+        return engine.addTransactionAndDetectFraud(nextId++, accountIds[i], amounts[i], debits[i]);
+    }
+}
@@ -0,0 +1,76 @@
+package domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Run with -prof gc: the primitive overload should report gc.alloc.rate.norm of ~0 B/op, while the object path
+// pays for one Transaction per event, as a decoder building beans from a feed would.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class AllocationBenchmark {
+    private static final int POOL_SIZE = 1 << 16;
+
+    // Bounded ring, so the store never grows and any allocation left in the profile comes from the ingest path
+    @Param({"65536"})
+    int window;
+
+    @Param({"100000"})
+    int accounts;
+
+    TransactionEngine engine;
+    int[] accountIds;
+    int[] amounts;
+    boolean[] debits;
+    int nextId;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        engine = new TransactionEngine(new RingTransactionStore(window));
+
+        var random = new SplittableRandom(42);
+        accountIds = new int[POOL_SIZE];
+        amounts = new int[POOL_SIZE];
+        debits = new boolean[POOL_SIZE];
+        for (var i = 0; i < POOL_SIZE; i++) {
+            var txn = BenchmarkData.transaction(random, i, accounts, 0.5);
+            accountIds[i] = txn.accountId;
+            amounts[i] = txn.amount;
+            debits[i] = txn.isDebit;
+        }
+        nextId = 0;
+    }
+
+    @Benchmark
+    public int primitive() {
+        var i = nextId & (POOL_SIZE - 1);
+        return engine.addTransactionAndDetectFraud(nextId++, accountIds[i], amounts[i], debits[i]);
+    }
+
+    @Benchmark
+    public int object() {
+        var i = nextId & (POOL_SIZE - 1);
+        var txn = new Transaction();
+        txn.transactionId = nextId++;
+        txn.accountId = accountIds[i];
+        txn.amount = amounts[i];
+        txn.isDebit = debits[i];
+        return engine.addTransactionAndDetectFraud(txn);
+    }
+}
@@ -0,0 +1,70 @@
+package domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BacktestBenchmark {
+    @Param({"1000000", "10000000"})
+    int datasetSize;
+
+    @Param({"100000"})
+    int accounts;
+
+    @Param({"1", "2", "4", "8"})
+    int threads;
+
+    ColumnarTransactionStore dataset;
+    ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataset = new ColumnarTransactionStore(datasetSize);
+        var random = new SplittableRandom(42);
+        for (var i = 0; i < datasetSize; i++) {
+            dataset.add(BenchmarkData.transaction(random, i, accounts, 0.5));
+        }
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int[] sequential() {
+        var engine = new TransactionEngine(new ColumnarTransactionStore(datasetSize));
+        var fraudScores = new int[datasetSize];
+        for (var i = 0; i < datasetSize; i++) {
+            fraudScores[i] = engine.addTransactionAndDetectFraud(dataset.transactionId(i), dataset.accountId(i),
+                    dataset.amount(i), dataset.isDebit(i));
+        }
+        return fraudScores;
+    }
+
+    @Benchmark
+    public int[] parallel() {
+        return new ParallelBacktest(pool).score(dataset);
+    }
+}
@@ -0,0 +1,27 @@
+package domain;
+
+import java.util.SplittableRandom;
+
+final class BenchmarkData {
+    private BenchmarkData() {
+    }
+
+    static TransactionEngine filledEngine(int historySize, int accounts, double debitRatio, long seed) {
+        var engine = new TransactionEngine(new ColumnarTransactionStore(historySize));
+        var random = new SplittableRandom(seed);
+
+        for (var i = 0; i < historySize; i++) {
+            engine.addTransactionAndDetectFraud(transaction(random, i, accounts, debitRatio));
+        }
+        return engine;
+    }
+
+    static Transaction transaction(SplittableRandom random, int transactionId, int accounts, double debitRatio) {
+        var txn = new Transaction();
+        txn.transactionId = transactionId;
+        txn.accountId = random.nextInt(accounts);
+        txn.amount = 1 + random.nextInt(2 * TransactionEngine.DEFAULT_THRESHOLD);
+        txn.isDebit = random.nextDouble() < debitRatio;
+        return txn;
+    }
+}
@@ -0,0 +1,68 @@
+package domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class IngestBenchmark {
+    private static final int POOL_SIZE = 1 << 16;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int historySize;
+
+    @Param({"100", "100000"})
+    int accounts;
+
+    @Param({"0.1", "0.5", "0.9"})
+    double debitRatio;
+
+    TransactionEngine engine;
+    Transaction[] pool;
+    int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        engine = BenchmarkData.filledEngine(historySize, accounts, debitRatio, 42);
+
+        // Fresh ids above the pre-filled history, so every measured call takes the full scoring path
+        var random = new SplittableRandom(7);
+        pool = new Transaction[POOL_SIZE];
+        for (var i = 0; i < POOL_SIZE; i++) {
+            pool[i] = BenchmarkData.transaction(random, historySize + i, accounts, debitRatio);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public int addTransactionAndDetectFraud() {
+        var txn = pool[next & (POOL_SIZE - 1)];
+        if (++next % POOL_SIZE == 0) {
+            shiftPool();
+        }
+        return engine.addTransactionAndDetectFraud(txn);
+    }
+
+    private void shiftPool() {
+        for (var txn : pool) {
+            txn.transactionId += POOL_SIZE;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class QueryBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int historySize;
+
+    @Param({"100", "100000"})
+    int accounts;
+
+    @Param({"0.1", "0.5", "0.9"})
+    double debitRatio;
+
+    TransactionEngine engine;
+    int accountId;
+
+    @Setup
+    public void setUp() {
+        engine = BenchmarkData.filledEngine(historySize, accounts, debitRatio, 42);
+    }
+
+    @Benchmark
+    public int getAverageTransactionAmountByAccount() {
+        accountId = (accountId + 1) % accounts;
+        return engine.getAverageTransactionAmountByAccount(accountId);
+    }
+
+    @Benchmark
+    public int getTransactionPatternAboveThreshold() {
+        return engine.getTransactionPatternAboveThreshold(engine.THRESHOLD);
+    }
+}
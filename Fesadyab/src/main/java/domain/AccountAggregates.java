@@ -0,0 +1,181 @@
+package domain;
+
+class AccountAggregates implements AccountStatistics {
+    private static final int INITIAL_CAPACITY = 16;
+
+    int[] accountIds;
+    long[] sums;
+    int[] counts;
+    boolean[] used;
+    int size;
+
+    AccountAggregates() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    // Sized so that expectedSize accounts fit without growing
+    AccountAggregates(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    @Override
+    public void add(int accountId, int amount) {
+        add(accountId, amount, 1);
+    }
+
+    void add(int accountId, long sum, int count) {
+        var slot = slotFor(accountId);
+        sums[slot] += sum;
+        counts[slot] += count;
+    }
+
+    @Override
+    public void remove(int accountId, int amount) {
+        var slot = find(accountId);
+        if (slot < 0) {
+            return;
+        }
+
+        sums[slot] -= amount;
+        counts[slot]--;
+        if (counts[slot] <= 0) {
+            removeSlot(slot);
+        }
+    }
+
+    @Override
+    public int average(int accountId) {
+        var slot = find(accountId);
+        if (slot < 0 || counts[slot] == 0) {
+            return 0;
+        }
+
+        return (int) (sums[slot] / counts[slot]);
+    }
+
+    void removeAll(int accountId) {
+        var slot = find(accountId);
+        if (slot >= 0) {
+            removeSlot(slot);
+        }
+    }
+
+    int count(int accountId) {
+        var slot = find(accountId);
+        return slot < 0 ? 0 : counts[slot];
+    }
+
+    long sum(int accountId) {
+        var slot = find(accountId);
+        return slot < 0 ? 0 : sums[slot];
+    }
+
+    // True even for an account added with a zero count, unlike count(accountId) > 0
+    boolean contains(int accountId) {
+        return find(accountId) >= 0;
+    }
+
+    private int find(int accountId) {
+        var mask = accountIds.length - 1;
+        var slot = hash(accountId) & mask;
+
+        while (used[slot]) {
+            if (accountIds[slot] == accountId) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    private int slotFor(int accountId) {
+        var mask = accountIds.length - 1;
+        var slot = hash(accountId) & mask;
+
+        while (used[slot]) {
+            if (accountIds[slot] == accountId) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size + 1 > accountIds.length * 3 / 4) {
+            grow();
+            return slotFor(accountId);
+        }
+
+        used[slot] = true;
+        accountIds[slot] = accountId;
+        size++;
+        return slot;
+    }
+
+    private void removeSlot(int slot) {
+        var mask = accountIds.length - 1;
+        var hole = slot;
+        var next = (hole + 1) & mask;
+
+        while (used[next]) {
+            var home = hash(accountIds[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                accountIds[hole] = accountIds[next];
+                sums[hole] = sums[next];
+                counts[hole] = counts[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        used[hole] = false;
+        sums[hole] = 0;
+        counts[hole] = 0;
+        size--;
+    }
+
+    private void grow() {
+        var oldAccountIds = accountIds;
+        var oldSums = sums;
+        var oldCounts = counts;
+        var oldUsed = used;
+
+        allocate(oldAccountIds.length * 2);
+
+        var mask = accountIds.length - 1;
+        for (var i = 0; i < oldAccountIds.length; i++) {
+            if (!oldUsed[i]) {
+                continue;
+            }
+
+            var slot = hash(oldAccountIds[i]) & mask;
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+
+            used[slot] = true;
+            accountIds[slot] = oldAccountIds[i];
+            sums[slot] = oldSums[i];
+            counts[slot] = oldCounts[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        accountIds = new int[capacity];
+        sums = new long[capacity];
+        counts = new int[capacity];
+        used = new boolean[capacity];
+    }
+
+    static int capacityFor(int expectedSize) {
+        var capacity = INITIAL_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    static int hash(int key) {
+        var h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
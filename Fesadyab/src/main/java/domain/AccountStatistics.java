@@ -0,0 +1,12 @@
+package domain;
+
+// Per-account running state behind the excessive-debit baseline. TransactionHistory feeds it every transaction that
+// enters the history and every transaction evicted from a bounded one.
+public interface AccountStatistics {
+    void add(int accountId, int amount);
+
+    void remove(int accountId, int amount);
+
+    // Baseline amount for the account, or 0 when nothing is known about it
+    int average(int accountId);
+}
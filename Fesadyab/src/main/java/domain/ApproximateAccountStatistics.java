@@ -0,0 +1,218 @@
+package domain;
+
+import java.util.SplittableRandom;
+
+// Fixed-memory account statistics for very large account cardinalities. The hottest accounts are tracked exactly in a
+// tier of exactCapacity; everything else lands in a count-min style sketch of sums and counts. For a sketched account,
+// the count behind its average overshoots the true count by at most epsilon times the number of sketched
+// transactions, with probability at least 1 - delta.
+//
+// An account is promoted once its estimated count reaches promotionCount. The exact tier starts it from zero: the
+// transactions it had before promotion stay in the sketch, and its average combines the exact part with that sketch
+// residual until they have all been evicted. When the tier is full, a candidate replaces the coldest of a few sampled
+// members if it is hotter, and the demoted member's exact part goes back into the sketch.
+//
+// Removals rely on TransactionHistory evicting oldest first: the n-th removal is the n-th transaction added, so
+// comparing it with an account's promotion tells whether it was in the sketch or in the exact tier.
+public class ApproximateAccountStatistics implements AccountStatistics {
+    static final int DEFAULT_PROMOTION_COUNT = 2;
+    static final int EVICTION_SAMPLES = 8;
+
+    private static final long SEED = 0x46534b43L;  // Fixed, so scores are reproducible across runs
+
+    final int depth;
+    final int width;
+    final long[] sketchSums;
+    final long[] sketchCounts;
+    final int[] rowMultipliers;
+    final AccountAggregates exact;
+    // Sum column: the sequence number of the transaction that promoted the account
+    final AccountAggregates promotions;
+    final int exactCapacity;
+    final int promotionCount;
+    private long addedCount;
+    private long removedCount;
+    private int hand;
+
+    public ApproximateAccountStatistics(double epsilon, double delta, int exactCapacity) {
+        this(epsilon, delta, exactCapacity, DEFAULT_PROMOTION_COUNT);
+    }
+
+    public ApproximateAccountStatistics(double epsilon, double delta, int exactCapacity, int promotionCount) {
+        if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("epsilon and delta must be between 0 and 1");
+        }
+        if (exactCapacity < 0 || promotionCount < 1) {
+            throw new IllegalArgumentException("exactCapacity must be non-negative and promotionCount positive");
+        }
+
+        var cells = Math.ceil(Math.E / epsilon) * Math.ceil(Math.log(1 / delta));
+        if (cells > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Error bounds need more sketch cells than fit in an array");
+        }
+
+        width = (int) Math.ceil(Math.E / epsilon);
+        depth = (int) Math.ceil(Math.log(1 / delta));
+        sketchSums = new long[depth * width];
+        sketchCounts = new long[depth * width];
+        rowMultipliers = new int[depth];
+        var random = new SplittableRandom(SEED);
+        for (var row = 0; row < depth; row++) {
+            rowMultipliers[row] = random.nextInt() | 1;
+        }
+
+        // Allocated up front and never grown, so memory does not depend on how many accounts show up
+        exact = new AccountAggregates(exactCapacity);
+        promotions = new AccountAggregates(exactCapacity);
+        this.exactCapacity = exactCapacity;
+        this.promotionCount = promotionCount;
+    }
+
+    @Override
+    public void add(int accountId, int amount) {
+        var sequence = addedCount++;
+        if (exact.count(accountId) > 0 || promote(accountId, sequence)) {
+            exact.add(accountId, amount);
+        } else {
+            addToSketch(accountId, amount, 1);
+        }
+    }
+
+    @Override
+    public void remove(int accountId, int amount) {
+        var sequence = removedCount++;
+        if (exact.count(accountId) == 0 || sequence < promotedAt(accountId)) {
+            addToSketch(accountId, -amount, -1);
+            return;
+        }
+
+        exact.remove(accountId, amount);  // Frees the slot once the account has no transactions left
+        if (exact.count(accountId) == 0) {
+            promotions.removeAll(accountId);
+        }
+    }
+
+    @Override
+    public int average(int accountId) {
+        if (exact.count(accountId) == 0) {
+            var cell = leastCollidedCell(accountId);
+            return cell < 0 ? 0 : (int) (sketchSums[cell] / sketchCounts[cell]);
+        }
+
+        var sum = exact.sum(accountId);
+        long count = exact.count(accountId);
+        var cell = hasResidual(accountId) ? leastCollidedCell(accountId) : -1;
+        if (cell >= 0) {
+            sum += sketchSums[cell];
+            count += sketchCounts[cell];
+        }
+        return (int) (sum / count);
+    }
+
+    boolean isExact(int accountId) {
+        return exact.count(accountId) > 0;
+    }
+
+    // Upper bound on the heap held by this instance's tables
+    public long memoryBytes() {
+        var sketchBytes = 2L * Long.BYTES * sketchSums.length + (long) Integer.BYTES * depth;
+        var exactBytes = (long) exact.accountIds.length * (Integer.BYTES + Long.BYTES + Integer.BYTES + 1);
+        return sketchBytes + 2 * exactBytes;
+    }
+
+    private boolean promote(int accountId, long sequence) {
+        if (exactCapacity == 0) {
+            return false;
+        }
+        var heat = estimatedCount(accountId) + 1;
+        if (heat < promotionCount) {
+            return false;
+        }
+
+        if (exact.size >= exactCapacity) {
+            var coldest = coldestSampledMember();
+            if (heat <= heat(coldest)) {
+                return false;
+            }
+            demote(coldest);
+        }
+        promotions.add(accountId, sequence, 1);
+        return true;
+    }
+
+    // Clock-style sampling: the hand walks the exact table, so every member is looked at in turn
+    private int coldestSampledMember() {
+        var coldest = 0;
+        var coldestHeat = Long.MAX_VALUE;
+        var mask = exact.accountIds.length - 1;
+        for (var sampled = 0; sampled < EVICTION_SAMPLES && sampled < exact.size; hand = (hand + 1) & mask) {
+            if (!exact.used[hand]) {
+                continue;
+            }
+            var heat = heat(exact.accountIds[hand]);
+            if (heat < coldestHeat) {
+                coldest = exact.accountIds[hand];
+                coldestHeat = heat;
+            }
+            sampled++;
+        }
+        return coldest;
+    }
+
+    // A member's transactions in the window: its exact part plus what is left of it in the sketch
+    private long heat(int accountId) {
+        return exact.count(accountId) + (hasResidual(accountId) ? estimatedCount(accountId) : 0);
+    }
+
+    private void demote(int accountId) {
+        addToSketch(accountId, exact.sum(accountId), exact.count(accountId));
+        exact.removeAll(accountId);
+        promotions.removeAll(accountId);
+    }
+
+    private long promotedAt(int accountId) {
+        return promotions.sum(accountId);
+    }
+
+    // Transactions from before the promotion are still in the window until the removals pass it
+    private boolean hasResidual(int accountId) {
+        return removedCount < promotedAt(accountId);
+    }
+
+    private long estimatedCount(int accountId) {
+        var cell = leastCollidedCell(accountId);
+        return cell < 0 ? 0 : sketchCounts[cell];
+    }
+
+    private void addToSketch(int accountId, long sum, long count) {
+        for (var row = 0; row < depth; row++) {
+            var cell = cell(row, accountId);
+            sketchSums[cell] += sum;
+            sketchCounts[cell] += count;
+        }
+    }
+
+    // The row whose cell saw the fewest transactions has the least mass from colliding accounts.
+    // An empty cell in any row means the account has nothing in the sketch.
+    private int leastCollidedCell(int accountId) {
+        var best = -1;
+        for (var row = 0; row < depth; row++) {
+            var cell = cell(row, accountId);
+            if (sketchCounts[cell] <= 0) {
+                return -1;
+            }
+            if (best < 0 || sketchCounts[cell] < sketchCounts[best]) {
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    int cell(int row, int accountId) {
+        var h = accountId * rowMultipliers[row];
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return row * width + (int) ((h & 0xFFFFFFFFL) * width >>> 32);
+    }
+}
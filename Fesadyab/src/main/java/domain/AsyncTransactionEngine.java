@@ -0,0 +1,257 @@
+package domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Non-blocking front end for a TransactionEngine. Submissions queue up from any thread; one scoring thread owns the
+// engine, drains whatever has queued into a batch, and completes the futures in submission order. Futures complete
+// on the scoring thread, so callbacks that block or do real work should use the *Async variants.
+//
+// At most queueCapacity submissions wait at a time, a submitAll counting as one. Past that, submissions fail at once
+// with RejectedExecutionException instead of queueing without bound while producers outrun the scoring thread.
+public class AsyncTransactionEngine implements AutoCloseable {
+    static final int DEFAULT_MAX_BATCH = 1024;
+    static final int DEFAULT_QUEUE_CAPACITY = 64 * DEFAULT_MAX_BATCH;
+
+    private final TransactionEngine engine;
+    private final int maxBatch;
+    private final BlockingQueue<Submission> queue;
+    private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private final Thread scoringThread;
+    private boolean closed;
+    private Throwable failure;
+
+    public AsyncTransactionEngine(TransactionEngine engine) {
+        this(engine, DEFAULT_MAX_BATCH);
+    }
+
+    public AsyncTransactionEngine(TransactionEngine engine, int maxBatch) {
+        this(engine, maxBatch, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public AsyncTransactionEngine(TransactionEngine engine, int maxBatch, int queueCapacity) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("maxBatch must be positive");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity must be positive");
+        }
+
+        this.engine = engine;
+        this.maxBatch = maxBatch;
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        scoringThread = Thread.ofPlatform().name("async-fraud-scoring").start(this::run);
+    }
+
+    public CompletableFuture<Integer> submit(Transaction txn) {
+        var submission = new SingleSubmission(txn);
+        enqueue(submission);
+        return submission.future;
+    }
+
+    // Scored back to back, so no other submission lands between the transactions of one batch
+    public CompletableFuture<int[]> submitAll(List<Transaction> transactions) {
+        var submission = new BatchSubmission(transactions.toArray(Transaction[]::new));
+        enqueue(submission);
+        return submission.future;
+    }
+
+    private void enqueue(Submission submission) {
+        closeLock.readLock().lock();
+        try {
+            if (failure != null) {
+                submission.fail(failure);
+            } else if (closed) {
+                throw new IllegalStateException("Async engine is closed");
+            } else if (!queue.offer(submission)) {
+                submission.fail(new RejectedExecutionException("Async engine queue is full"));
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    private void run() {
+        var batch = new ArrayList<Submission>(maxBatch);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, maxBatch - 1);
+                if (score(batch)) {
+                    return;  // Everything queued before close() has been scored
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException | RuntimeException | Error e) {
+            // The engine may be half way through a transaction, so nothing after this can be trusted to it
+            stop(batch, e);
+        }
+    }
+
+    // True once the close sentinel is reached
+    private boolean score(List<Submission> batch) {
+        var transactions = 0;
+        for (var submission : batch) {
+            transactions += submission.size();
+        }
+        try {
+            // One capacity check for the whole batch instead of growth checks along the way
+            engine.transactionHistory.ensureCapacity(engine.transactionHistory.size() + transactions);
+        } catch (RuntimeException e) {
+            // Nothing was scored yet, so only this batch fails
+            for (var submission : batch) {
+                submission.fail(e);
+            }
+            return batch.contains(Submission.CLOSE);
+        }
+
+        for (var submission : batch) {
+            if (submission == Submission.CLOSE) {
+                return true;
+            }
+            submission.score(engine);  // Rule failures only fail their own future
+        }
+        return false;
+    }
+
+    private void stop(List<Submission> batch, Throwable cause) {
+        closeLock.writeLock().lock();
+        try {
+            failure = cause;
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+
+        // Nothing enqueues past the lock any more, so this drains everything still waiting
+        for (var submission : batch) {
+            submission.fail(cause);
+        }
+        var remaining = new ArrayList<Submission>();
+        queue.drainTo(remaining);
+        for (var submission : remaining) {
+            submission.fail(cause);
+        }
+    }
+
+    // Only safe to query once closed; until then the scoring thread owns the engine
+    public TransactionEngine getEngine() {
+        return engine;
+    }
+
+    // Scores everything already submitted, then stops the scoring thread. An interrupted caller stops waiting for
+    // that and returns with its interrupt flag set; the scoring thread still finishes the queue.
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+
+        // Outside the lock: a full queue only frees up as the scoring thread drains it, and a failing scoring thread
+        // needs the lock before it drains. Nothing else enqueues once closed, so the sentinel always gets a slot.
+        var interrupted = false;
+        while (true) {
+            try {
+                queue.put(Submission.CLOSE);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        try {
+            scoringThread.join();
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private abstract static class Submission {
+        static final Submission CLOSE = new Submission() {
+            @Override
+            int size() {
+                return 0;
+            }
+
+            @Override
+            void score(TransactionEngine engine) {
+            }
+        };
+
+        abstract int size();
+
+        abstract void score(TransactionEngine engine);
+
+        void fail(Throwable cause) {
+        }
+    }
+
+    private static final class SingleSubmission extends Submission {
+        final Transaction txn;
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+
+        SingleSubmission(Transaction txn) {
+            this.txn = txn;
+        }
+
+        @Override
+        int size() {
+            return 1;
+        }
+
+        @Override
+        void score(TransactionEngine engine) {
+            try {
+                future.complete(engine.addTransactionAndDetectFraud(txn));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        void fail(Throwable cause) {
+            future.completeExceptionally(cause);
+        }
+    }
+
+    private static final class BatchSubmission extends Submission {
+        final Transaction[] transactions;
+        final CompletableFuture<int[]> future = new CompletableFuture<>();
+
+        BatchSubmission(Transaction[] transactions) {
+            this.transactions = transactions;
+        }
+
+        @Override
+        int size() {
+            return transactions.length;
+        }
+
+        @Override
+        void score(TransactionEngine engine) {
+            try {
+                future.complete(engine.addTransactionsAndDetectFraud(transactions));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        void fail(Throwable cause) {
+            future.completeExceptionally(cause);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package domain;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// One shard of a fraud scoring cluster, serving ClusterRouter connections on a loopback port. It owns the history
+// and aggregates of the accounts that hash to it, and the claims on the transaction ids that hash to it. Each claim
+// carries the claiming router's token, and only a release with the same token undoes it: a router that lost a claim
+// response can release unconditionally without freeing an id that another claim already holds.
+public class ClusterNode implements Closeable {
+    static final int CLAIM = 1;
+    static final int SCORE = 2;
+    static final int AVERAGE = 3;
+    static final int RELEASE = 4;
+
+    private final ServerSocket serverSocket;
+    private final TransactionEngine engine;
+    private final IntLongHashMap claims = new IntLongHashMap();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+    private volatile boolean closed;
+    volatile boolean dropConnectionAfterClaim;  // Fault injection: the claim is applied, its response never sent
+
+    private ClusterNode(ServerSocket serverSocket) {
+        this.serverSocket = serverSocket;
+        // Ids are deduplicated by their owner before a score request arrives, so only the per-account rule runs here
+        engine = new TransactionEngine(new ColumnarTransactionStore(), List.of(new ExcessiveDebitRule()));
+        acceptor = Thread.ofPlatform().name("cluster-node-" + serverSocket.getLocalPort()).daemon().start(this::accept);
+    }
+
+    // Port 0 picks a free port; see address()
+    public static ClusterNode start(int port) throws IOException {
+        var serverSocket = new ServerSocket();
+        try {
+            serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        } catch (IOException e) {
+            serverSocket.close();
+            throw e;
+        }
+        return new ClusterNode(serverSocket);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var node = start(args.length > 0 ? Integer.parseInt(args[0]) : 0);
+        System.out.println("ClusterNode listening on " + node.address().getPort());
+        System.out.flush();
+        node.acceptor.join();
+    }
+
+    public InetSocketAddress address() {
+        return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                var socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                if (closed) {
+                    socket.close();  // close() may have swept the connections before this one was added
+                    return;
+                }
+                Thread.ofPlatform().name("cluster-node-connection").daemon().start(() -> serve(socket));
+            } catch (IOException e) {
+                if (closed) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             var in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             var out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            int opcode;
+            while ((opcode = in.read()) >= 0) {
+                var response = handle(opcode, in);
+                if (opcode == CLAIM && dropConnectionAfterClaim) {
+                    socket.close();
+                    return;
+                }
+                out.writeInt(response);
+                if (in.available() == 0) {
+                    out.flush();  // Pipelined requests get their responses in one write
+                }
+            }
+        } catch (IOException e) {
+            // The router went away or sent garbage; its connection is dropped, the node keeps serving others
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    private int handle(int opcode, DataInputStream in) throws IOException {
+        switch (opcode) {
+            case CLAIM -> {
+                var transactionId = in.readInt();
+                var token = in.readLong();
+                lock.lock();
+                try {
+                    return claims.putIfAbsent(transactionId, token) ? 1 : 0;
+                } finally {
+                    lock.unlock();
+                }
+            }
+            case SCORE -> {
+                var transactionId = in.readInt();
+                var accountId = in.readInt();
+                var amount = in.readInt();
+                var isDebit = in.readBoolean();
+                lock.lock();
+                try {
+                    return engine.addTransactionAndDetectFraud(transactionId, accountId, amount, isDebit);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            case AVERAGE -> {
+                var accountId = in.readInt();
+                lock.lock();
+                try {
+                    return engine.getAverageTransactionAmountByAccount(accountId);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            case RELEASE -> {
+                var transactionId = in.readInt();
+                var token = in.readLong();
+                lock.lock();
+                try {
+                    return claims.remove(transactionId, token) ? 1 : 0;
+                } finally {
+                    lock.unlock();
+                }
+            }
+            default -> throw new IOException("Unknown cluster opcode " + opcode);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (var socket : connections) {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package domain;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Scores transactions across ClusterNodes with the default rules. The owner of hash(transactionId) decides whether
+// an id is new, the owner of hash(accountId) scores excessive debits, and the cross-account threshold pattern is
+// tracked here because it depends on global order. With a single router the scores match one TransactionEngine.
+// Every router must list the nodes in the same order, since ring positions are derived from node indexes.
+public class ClusterRouter implements Closeable {
+    static final int BATCH_CHUNK = 1024;  // Keeps pipelined requests well inside the socket buffers
+
+    private final NodeConnection[] nodes;
+    private final ConsistentHashRing ring;
+    private final ThresholdPatternDetector patternDetector;
+    private long nextClaimToken = new SplittableRandom().nextLong();  // Distinct across routers sharing the nodes
+
+    public ClusterRouter(List<InetSocketAddress> nodeAddresses) throws IOException {
+        this(nodeAddresses, TransactionEngine.DEFAULT_THRESHOLD);
+    }
+
+    public ClusterRouter(List<InetSocketAddress> nodeAddresses, int threshold) throws IOException {
+        nodes = new NodeConnection[nodeAddresses.size()];
+        for (var i = 0; i < nodes.length; i++) {
+            nodes[i] = new NodeConnection(nodeAddresses.get(i));
+        }
+        try {
+            connectAll();
+        } catch (IOException e) {
+            closeAll();
+            throw e;
+        }
+        ring = new ConsistentHashRing(nodes.length);
+        patternDetector = new ThresholdPatternDetector(threshold);
+    }
+
+    public int addTransactionAndDetectFraud(Transaction txn) throws IOException {
+        return addTransactionAndDetectFraud(txn.transactionId, txn.accountId, txn.amount, txn.isDebit);
+    }
+
+    public int addTransactionAndDetectFraud(int transactionId, int accountId, int amount, boolean isDebit) throws IOException {
+        var claim = new int[]{transactionId};
+        var token = new long[]{nextClaimToken++};
+        try {
+            var idOwner = connected(transactionId);
+            idOwner.claim(transactionId, token[0]);
+            idOwner.out.flush();
+            if (idOwner.in.readInt() == 0) {
+                return 0;
+            }
+        } catch (IOException e) {
+            release(claim, token, 0, 1, e);  // The claim may have been applied with its response lost
+            throw e;
+        }
+
+        int excessiveDebitScore;
+        try {
+            var accountOwner = connected(accountId);
+            accountOwner.score(transactionId, accountId, amount, isDebit);
+            accountOwner.out.flush();
+            excessiveDebitScore = accountOwner.in.readInt();
+        } catch (IOException e) {
+            release(claim, token, 0, 1, e);
+            throw e;
+        }
+        return withPattern(excessiveDebitScore, transactionId, amount);
+    }
+
+    // Pipelines each chunk: all claims, then all score requests, one flush per node per round trip.
+    // Each node still sees its requests in input order, so the result matches calling one at a time.
+    public int[] addTransactionsAndDetectFraud(Transaction[] transactions) throws IOException {
+        var fraudScores = new int[transactions.length];
+        var claimedIds = new int[Math.min(transactions.length, BATCH_CHUNK)];
+        var claimTokens = new long[claimedIds.length];
+        var claimed = new boolean[claimedIds.length];
+
+        for (var from = 0; from < transactions.length; from += BATCH_CHUNK) {
+            var to = Math.min(transactions.length, from + BATCH_CHUNK);
+
+            try {
+                for (var i = from; i < to; i++) {
+                    claimedIds[i - from] = transactions[i].transactionId;
+                    claimTokens[i - from] = nextClaimToken++;
+                    connected(claimedIds[i - from]).claim(claimedIds[i - from], claimTokens[i - from]);
+                }
+                flushAll();
+                for (var i = from; i < to; i++) {
+                    claimed[i - from] = nodes[ring.nodeFor(transactions[i].transactionId)].in.readInt() != 0;
+                }
+            } catch (IOException e) {
+                release(claimedIds, claimTokens, 0, to - from, e);  // Tokens make releasing refused claims a no-op
+                throw e;
+            }
+
+            var claimedCount = 0;
+            for (var i = 0; i < to - from; i++) {
+                if (claimed[i]) {
+                    claimedIds[claimedCount] = claimedIds[i];
+                    claimTokens[claimedCount++] = claimTokens[i];
+                }
+            }
+
+            var scoredCount = 0;
+            try {
+                for (var i = from; i < to; i++) {
+                    if (claimed[i - from]) {
+                        var txn = transactions[i];
+                        connected(txn.accountId).score(txn.transactionId, txn.accountId, txn.amount, txn.isDebit);
+                    }
+                }
+                flushAll();
+                for (var i = from; i < to; i++) {
+                    if (claimed[i - from]) {
+                        var txn = transactions[i];
+                        fraudScores[i] = withPattern(nodes[ring.nodeFor(txn.accountId)].in.readInt(), txn.transactionId, txn.amount);
+                        scoredCount++;
+                    }
+                }
+            } catch (IOException e) {
+                release(claimedIds, claimTokens, scoredCount, claimedCount, e);
+                throw e;
+            }
+        }
+        return fraudScores;
+    }
+
+    // Hands back ids this router claimed but never got a score for, so a retry scores them instead of reporting a
+    // duplicate. Responses may still be in flight on every connection, so all of them start over first. A score
+    // request that reached its node before the failure is still deduplicated there; its retry scores 0. So does a
+    // claim the node had not read yet when the release overtook it on the new connection: it stays claimed.
+    private void release(int[] transactionIds, long[] tokens, int from, int to, IOException cause) {
+        resetAll();
+        if (from == to) {
+            return;
+        }
+
+        try {
+            for (var i = from; i < to; i++) {
+                connected(transactionIds[i]).release(transactionIds[i], tokens[i]);
+            }
+            flushAll();
+            for (var i = from; i < to; i++) {
+                nodes[ring.nodeFor(transactionIds[i])].in.readInt();
+            }
+        } catch (IOException e) {
+            cause.addSuppressed(e);  // Those ids stay claimed; the node that holds them is unreachable
+            resetAll();
+        }
+    }
+
+    public int getAverageTransactionAmountByAccount(int accountId) throws IOException {
+        try {
+            var accountOwner = connected(accountId);
+            accountOwner.out.writeByte(ClusterNode.AVERAGE);
+            accountOwner.out.writeInt(accountId);
+            accountOwner.out.flush();
+            return accountOwner.in.readInt();
+        } catch (IOException e) {
+            resetAll();
+            throw e;
+        }
+    }
+
+    int nodeFor(int key) {
+        return ring.nodeFor(key);
+    }
+
+    // Same short-circuit as the default pipeline: the pattern only counts when the excessive-debit rule did not fire
+    private int withPattern(int excessiveDebitScore, int transactionId, int amount) {
+        var fraudScore = excessiveDebitScore != 0 ? excessiveDebitScore : patternDetector.pattern();
+        patternDetector.accept(transactionId, amount);
+        return fraudScore;
+    }
+
+    // Connects lazily, so a node that went away only fails the requests it owns
+    private NodeConnection connected(int key) throws IOException {
+        var node = nodes[ring.nodeFor(key)];
+        node.connect();
+        return node;
+    }
+
+    private void flushAll() throws IOException {
+        for (var node : nodes) {
+            if (node.socket != null) {
+                node.out.flush();
+            }
+        }
+    }
+
+    private void connectAll() throws IOException {
+        for (var node : nodes) {
+            node.connect();
+        }
+    }
+
+    // After a failed exchange a connection may hold unread responses that would answer later requests
+    private void resetAll() {
+        for (var node : nodes) {
+            try {
+                node.disconnect();
+            } catch (IOException ignored) {
+                // Reconnected on next use
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeAll();
+    }
+
+    private void closeAll() throws IOException {
+        IOException failure = null;
+        for (var node : nodes) {
+            try {
+                node.disconnect();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static final class NodeConnection {
+        final InetSocketAddress address;
+        Socket socket;
+        DataInputStream in;
+        DataOutputStream out;
+
+        NodeConnection(InetSocketAddress address) {
+            this.address = address;
+        }
+
+        void connect() throws IOException {
+            if (socket != null) {
+                return;
+            }
+
+            var connected = new Socket();
+            try {
+                connected.connect(address);
+                connected.setTcpNoDelay(true);
+                in = new DataInputStream(new BufferedInputStream(connected.getInputStream()));
+                out = new DataOutputStream(new BufferedOutputStream(connected.getOutputStream()));
+            } catch (IOException e) {
+                connected.close();
+                throw e;
+            }
+            socket = connected;
+        }
+
+        void disconnect() throws IOException {
+            var connected = socket;
+            socket = null;
+            if (connected != null) {
+                connected.close();
+            }
+        }
+
+        void claim(int transactionId, long token) throws IOException {
+            out.writeByte(ClusterNode.CLAIM);
+            out.writeInt(transactionId);
+            out.writeLong(token);
+        }
+
+        void score(int transactionId, int accountId, int amount, boolean isDebit) throws IOException {
+            out.writeByte(ClusterNode.SCORE);
+            out.writeInt(transactionId);
+            out.writeInt(accountId);
+            out.writeInt(amount);
+            out.writeBoolean(isDebit);
+        }
+
+        void release(int transactionId, long token) throws IOException {
+            out.writeByte(ClusterNode.RELEASE);
+            out.writeInt(transactionId);
+            out.writeLong(token);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package domain;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+public class ColumnarTransactionStore implements TransactionStore {
+    private static final int INITIAL_CAPACITY = 64;
+
+    int[] transactionIds;
+    int[] accountIds;
+    int[] amounts;
+    long[] debitBits;
+    int size;
+
+    public ColumnarTransactionStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public ColumnarTransactionStore(int initialCapacity) {
+        var capacity = Math.max(initialCapacity, 1);
+        transactionIds = new int[capacity];
+        accountIds = new int[capacity];
+        amounts = new int[capacity];
+        debitBits = new long[wordsFor(capacity)];
+    }
+
+    @Override
+    public void append(int transactionId, int accountId, int amount, boolean isDebit) {
+        if (size == transactionIds.length) {
+            resize(size + (size >> 1) + 1);
+        }
+
+        transactionIds[size] = transactionId;
+        accountIds[size] = accountId;
+        amounts[size] = amount;
+        if (isDebit) {
+            debitBits[size >>> 6] |= 1L << size;
+        }
+        size++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int transactionId(int index) {
+        return transactionIds[checkIndex(index)];
+    }
+
+    @Override
+    public int accountId(int index) {
+        return accountIds[checkIndex(index)];
+    }
+
+    @Override
+    public int amount(int index) {
+        return amounts[checkIndex(index)];
+    }
+
+    @Override
+    public boolean isDebit(int index) {
+        checkIndex(index);
+        return (debitBits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (capacity > transactionIds.length) {
+            resize(capacity);
+        }
+    }
+
+    private void resize(int capacity) {
+        transactionIds = Arrays.copyOf(transactionIds, capacity);
+        accountIds = Arrays.copyOf(accountIds, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        debitBits = Arrays.copyOf(debitBits, wordsFor(capacity));
+    }
+
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, size);
+    }
+
+    private static int wordsFor(int capacity) {
+        return (capacity + 63) >>> 6;
+    }
+}
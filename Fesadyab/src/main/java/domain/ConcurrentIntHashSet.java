@@ -0,0 +1,59 @@
+package domain;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+class ConcurrentIntHashSet {
+    private final IntHashSet[] stripes;
+    private final ReentrantLock[] locks;
+    private final int stripeShift;
+
+    ConcurrentIntHashSet(int concurrencyLevel) {
+        var stripeCount = Integer.highestOneBit(Math.max(concurrencyLevel, 1) * 2 - 1);
+        stripes = new IntHashSet[stripeCount];
+        locks = new ReentrantLock[stripeCount];
+        stripeShift = 32 - Integer.numberOfTrailingZeros(stripeCount);
+
+        for (var i = 0; i < stripeCount; i++) {
+            stripes[i] = new IntHashSet();
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    boolean add(int key) {
+        var stripe = stripeFor(key);
+        locks[stripe].lock();
+        try {
+            return stripes[stripe].add(key);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    boolean contains(int key) {
+        var stripe = stripeFor(key);
+        locks[stripe].lock();
+        try {
+            return stripes[stripe].contains(key);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    int size() {
+        var size = 0;
+        for (var i = 0; i < stripes.length; i++) {
+            locks[i].lock();
+            try {
+                size += stripes[i].size();
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return size;
+    }
+
+    private int stripeFor(int key) {
+        // High bits pick the stripe; the stripe's own table probes with the low bits
+        return stripeShift == 32 ? 0 : AccountAggregates.hash(key) >>> stripeShift;
+    }
+}
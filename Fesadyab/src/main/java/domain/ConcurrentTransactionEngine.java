@@ -0,0 +1,128 @@
+package domain;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Scores with the per-account work (aggregates and the excessive-debit rule) under one lock per account shard. The
+// threshold pattern spans every account, so it runs as a separate stage after the shard lock is released: each
+// transaction takes a ticket while it still holds its shard lock and enters the stage in ticket order. The result is
+// the same as scoring serially in ticket order, and shards only meet in that short stage. Once the pattern breaks it
+// stays broken, and from then on transactions skip the stage entirely.
+public class ConcurrentTransactionEngine {
+    private static final int SPINS_BEFORE_YIELD = 64;
+
+    final Shard[] shards;
+    final ConcurrentIntHashSet transactionIds;
+    // Only the holder of the current ticket touches the detector; handing over the turn publishes its state
+    final ThresholdPatternDetector patternDetector;
+    final AtomicLong nextTicket = new AtomicLong();
+    private volatile long patternTurn;
+    private volatile boolean patternBroken;
+
+    public ConcurrentTransactionEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ConcurrentTransactionEngine(int shardCount) {
+        this(shardCount, TransactionEngine.DEFAULT_THRESHOLD);
+    }
+
+    public ConcurrentTransactionEngine(int shardCount, int threshold) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive");
+        }
+
+        shards = new Shard[shardCount];
+        for (var i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+        transactionIds = new ConcurrentIntHashSet(shardCount * 4);
+        patternDetector = new ThresholdPatternDetector(threshold);
+    }
+
+    public int addTransactionAndDetectFraud(Transaction txn) {
+        if (!transactionIds.add(txn.transactionId)) {
+            return 0;
+        }
+
+        var shard = shardFor(txn.accountId);
+        int fraudScore;
+        long ticket;
+        shard.lock.lock();
+        try {
+            var averageAmount = shard.accountAggregates.average(txn.accountId);
+            fraudScore = TransactionEngine.excessiveDebitScore(txn.amount, txn.isDebit, averageAmount);
+            shard.accountAggregates.add(txn.accountId, txn.amount);
+            shard.size++;
+
+            // Taken under the shard lock, so an account's transactions reach the pattern in the order they were scored
+            ticket = patternBroken ? -1 : nextTicket.getAndIncrement();
+        } finally {
+            shard.lock.unlock();
+        }
+
+        if (ticket < 0) {
+            return fraudScore;
+        }
+        var pattern = sequencePattern(ticket, txn.transactionId, txn.amount);
+        return fraudScore != 0 ? fraudScore : pattern;
+    }
+
+    private int sequencePattern(long ticket, int transactionId, int amount) {
+        var spins = 0;
+        while (patternTurn != ticket) {
+            if (patternBroken) {
+                return 0;  // Broken by an earlier ticket, which is all this one would have seen
+            }
+            if (++spins < SPINS_BEFORE_YIELD) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();  // The previous ticket holder may be descheduled
+            }
+        }
+
+        try {
+            var pattern = patternDetector.pattern();
+            patternDetector.accept(transactionId, amount);
+            if (patternDetector.broken) {
+                patternBroken = true;
+            }
+            return pattern;
+        } finally {
+            patternTurn = ticket + 1;
+        }
+    }
+
+    public int size() {
+        var size = 0;
+        for (var shard : shards) {
+            shard.lock.lock();
+            try {
+                size += shard.size;
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    int getAverageTransactionAmountByAccount(int accountId) {
+        var shard = shardFor(accountId);
+        shard.lock.lock();
+        try {
+            return shard.accountAggregates.average(accountId);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    Shard shardFor(int accountId) {
+        return shards[Math.floorMod(AccountAggregates.hash(accountId), shards.length)];
+    }
+
+    static class Shard {
+        final ReentrantLock lock = new ReentrantLock();
+        final AccountAggregates accountAggregates = new AccountAggregates();
+        int size;
+    }
+}
@@ -0,0 +1,60 @@
+package domain;
+
+import java.util.Arrays;
+
+// Maps keys to nodes through virtual-node points on a 32-bit ring. Node i's points depend only on i, so adding a
+// node only moves the keys that land on the new node's points.
+final class ConsistentHashRing {
+    static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final int[] points;
+    private final int[] owners;
+
+    ConsistentHashRing(int nodeCount) {
+        this(nodeCount, DEFAULT_VIRTUAL_NODES);
+    }
+
+    ConsistentHashRing(int nodeCount, int virtualNodes) {
+        if (nodeCount <= 0 || virtualNodes <= 0) {
+            throw new IllegalArgumentException("nodeCount and virtualNodes must be positive");
+        }
+
+        // Point in the high half, owner in the low half, so one sort orders both
+        var entries = new long[nodeCount * virtualNodes];
+        for (var node = 0; node < nodeCount; node++) {
+            for (var replica = 0; replica < virtualNodes; replica++) {
+                var point = mix(mix(node) + replica * 0x9E3779B9);
+                entries[node * virtualNodes + replica] = ((long) point << 32) | node;
+            }
+        }
+        Arrays.sort(entries);
+
+        points = new int[entries.length];
+        owners = new int[entries.length];
+        for (var i = 0; i < entries.length; i++) {
+            points[i] = (int) (entries[i] >> 32);
+            owners[i] = (int) entries[i];
+        }
+    }
+
+    int nodeFor(int key) {
+        var index = Arrays.binarySearch(points, mix(key));
+        if (index < 0) {
+            index = -index - 1;
+            if (index == points.length) {
+                index = 0;  // Wrap around to the first point
+            }
+        }
+        return owners[index];
+    }
+
+    static int mix(int key) {
+        var h = key;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
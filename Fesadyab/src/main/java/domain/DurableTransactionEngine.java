@@ -0,0 +1,184 @@
+package domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+// Directory layout: snapshot-<n>.bin holds the state as of the start of wal-<n>.log. Recovery restores the
+// newest snapshot and replays its log; checkpoint() writes snapshot-<n+1> before switching to wal-<n+1>.
+public class DurableTransactionEngine implements Closeable {
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d+)\\.bin");
+
+    private final Path directory;
+    private final ReentrantLock lock = new ReentrantLock();
+    final TransactionEngine engine;
+    WriteAheadLog log;
+    long generation;
+    private volatile Throwable failure;
+
+    private DurableTransactionEngine(Path directory, TransactionEngine engine, long generation) throws IOException {
+        this.directory = directory;
+        this.engine = engine;
+        this.generation = generation;
+        log = new WriteAheadLog(logPath(generation));
+    }
+
+    public static DurableTransactionEngine open(Path directory) throws IOException {
+        return open(directory, TransactionEngine.defaultRules());
+    }
+
+    public static DurableTransactionEngine open(Path directory, List<? extends FraudRule> rules) throws IOException {
+        Files.createDirectories(directory);
+
+        var generation = latestSnapshotGeneration(directory);
+        var engine = generation < 0
+                ? new TransactionEngine(new ColumnarTransactionStore(), rules)
+                : TransactionEngine.restoreSnapshot(snapshotPath(directory, generation), rules);
+        generation = Math.max(generation, 0);
+
+        WriteAheadLog.replay(logPath(directory, generation), engine::addTransactionAndDetectFraud);
+        return new DurableTransactionEngine(directory, engine, generation);
+    }
+
+    public int addTransactionAndDetectFraud(Transaction txn) throws IOException {
+        int fraudScore;
+        WriteAheadLog appendedTo;
+        long sequence;
+
+        lock.lock();
+        try {
+            checkNotFailed();
+            if (engine.transactionHistory.contains(txn.transactionId)) {
+                return 0;
+            }
+            appendedTo = log;
+            sequence = append(txn);
+            fraudScore = score(txn);
+        } finally {
+            lock.unlock();
+        }
+
+        // Outside the engine lock, so concurrent callers share one fsync
+        sync(appendedTo, sequence);
+        return fraudScore;
+    }
+
+    public int[] addTransactionsAndDetectFraud(Transaction[] transactions) throws IOException {
+        var fraudScores = new int[transactions.length];
+        WriteAheadLog appendedTo;
+        var sequence = 0L;
+
+        lock.lock();
+        try {
+            checkNotFailed();
+            appendedTo = log;
+            for (var i = 0; i < transactions.length; i++) {
+                var txn = transactions[i];
+                if (engine.transactionHistory.contains(txn.transactionId)) {
+                    continue;
+                }
+                sequence = append(txn);
+                fraudScores[i] = score(txn);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        sync(appendedTo, sequence);
+        return fraudScores;
+    }
+
+    // Logged before the engine sees it, so a log that refuses the record leaves memory untouched
+    private long append(Transaction txn) throws IOException {
+        try {
+            return log.append(txn.transactionId, txn.accountId, txn.amount, txn.isDebit);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    private int score(Transaction txn) {
+        try {
+            return engine.addTransactionAndDetectFraud(txn.transactionId, txn.accountId, txn.amount, txn.isDebit);
+        } catch (RuntimeException | Error e) {
+            failure = e;  // Logged but not applied; only a replay can bring memory and disk back in line
+            throw e;
+        }
+    }
+
+    // A failed sync leaves records in memory that may never reach disk, so nothing is accepted after it. Otherwise a
+    // retry would see the id as a duplicate and report success for a transaction recovery will not know about.
+    private void sync(WriteAheadLog appendedTo, long sequence) throws IOException {
+        try {
+            appendedTo.sync(sequence);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    private void checkNotFailed() throws IOException {
+        if (failure != null) {
+            throw new IOException("Durable engine failed earlier; reopen the directory to recover", failure);
+        }
+    }
+
+    public void checkpoint() throws IOException {
+        lock.lock();
+        try {
+            checkNotFailed();
+            var next = generation + 1;
+            engine.writeSnapshot(snapshotPath(directory, next));
+
+            var previousLog = log;
+            log = new WriteAheadLog(logPath(next));
+            previousLog.close();
+
+            Files.deleteIfExists(logPath(generation));
+            Files.deleteIfExists(snapshotPath(directory, generation));
+            generation = next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            log.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Path logPath(long generation) {
+        return logPath(directory, generation);
+    }
+
+    private static Path logPath(Path directory, long generation) {
+        return directory.resolve("wal-" + generation + ".log");
+    }
+
+    private static Path snapshotPath(Path directory, long generation) {
+        return directory.resolve("snapshot-" + generation + ".bin");
+    }
+
+    private static long latestSnapshotGeneration(Path directory) throws IOException {
+        var latest = -1L;
+        try (var files = Files.list(directory)) {
+            for (var file : (Iterable<Path>) files::iterator) {
+                var matcher = SNAPSHOT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    latest = Math.max(latest, Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+        return latest;
+    }
+}
@@ -0,0 +1,80 @@
+package domain;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class EngineMetrics {
+    // Rule timings live per rule in Snapshot.rules; that is where the detect and pattern latencies are now
+    public enum Stage {
+        DEDUP_CHECK,
+        RULE_EVALUATION,
+        APPEND
+    }
+
+    public enum Branch {
+        DUPLICATE,
+        FLAGGED,
+        NOT_SUSPICIOUS
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final Branch[] BRANCHES = Branch.values();
+
+    private final LatencyHistogram[] stageLatencies;
+    private final AtomicLongArray branchCounts;
+    private final FraudRulePipeline fraudRules;
+
+    EngineMetrics(FraudRulePipeline fraudRules) {
+        this.fraudRules = fraudRules;
+        stageLatencies = new LatencyHistogram[STAGES.length];
+        for (var i = 0; i < STAGES.length; i++) {
+            stageLatencies[i] = new LatencyHistogram();
+        }
+        branchCounts = new AtomicLongArray(BRANCHES.length);
+    }
+
+    void recordStage(Stage stage, long nanos) {
+        stageLatencies[stage.ordinal()].record(nanos);
+    }
+
+    void countBranch(Branch branch) {
+        var index = branch.ordinal();
+        branchCounts.setRelease(index, branchCounts.getPlain(index) + 1);
+    }
+
+    public Snapshot snapshot() {
+        var stages = new EnumMap<Stage, LatencyHistogram.Snapshot>(Stage.class);
+        for (var stage : STAGES) {
+            stages.put(stage, stageLatencies[stage.ordinal()].snapshot());
+        }
+
+        var branches = new EnumMap<Branch, Long>(Branch.class);
+        for (var branch : BRANCHES) {
+            branches.put(branch, branchCounts.getAcquire(branch.ordinal()));
+        }
+
+        return new Snapshot(stages, branches, fraudRules.statistics());
+    }
+
+    public record Snapshot(Map<Stage, LatencyHistogram.Snapshot> stageLatencies, Map<Branch, Long> branchCounts,
+                           List<FraudRulePipeline.RuleStatistics> rules) {
+        public LatencyHistogram.Snapshot latency(Stage stage) {
+            return stageLatencies.get(stage);
+        }
+
+        public long count(Branch branch) {
+            return branchCounts.get(branch);
+        }
+
+        public FraudRulePipeline.RuleStatistics rule(String name) {
+            for (var rule : rules) {
+                if (rule.name().equals(name)) {
+                    return rule;
+                }
+            }
+            return null;
+        }
+    }
+}
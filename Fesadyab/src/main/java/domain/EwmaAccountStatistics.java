@@ -0,0 +1,99 @@
+package domain;
+
+// Exponentially weighted moving average per account: one key and one double per account, O(1) updates, and no
+// dependence on retained history. Evictions are ignored because old transactions have already decayed away, so it
+// pairs with a small RingTransactionStore that only has to cover the dedup and pattern window.
+public class EwmaAccountStatistics implements AccountStatistics {
+    private static final int INITIAL_CAPACITY = 16;
+
+    final double alpha;
+    int[] accountIds;
+    double[] averages;
+    boolean[] used;
+    int size;
+
+    // alpha is the weight of the newest transaction; 1 keeps only the latest amount
+    public EwmaAccountStatistics(double alpha) {
+        if (!(alpha > 0 && alpha <= 1)) {
+            throw new IllegalArgumentException("alpha must be in (0, 1]");
+        }
+
+        this.alpha = alpha;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public void add(int accountId, int amount) {
+        var mask = accountIds.length - 1;
+        var slot = AccountAggregates.hash(accountId) & mask;
+
+        while (used[slot]) {
+            if (accountIds[slot] == accountId) {
+                averages[slot] += alpha * (amount - averages[slot]);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size + 1 > accountIds.length * 3 / 4) {
+            grow();
+            add(accountId, amount);
+            return;
+        }
+
+        // The first transaction seeds the average instead of being decayed towards zero
+        used[slot] = true;
+        accountIds[slot] = accountId;
+        averages[slot] = amount;
+        size++;
+    }
+
+    @Override
+    public void remove(int accountId, int amount) {
+    }
+
+    @Override
+    public int average(int accountId) {
+        var mask = accountIds.length - 1;
+        var slot = AccountAggregates.hash(accountId) & mask;
+
+        while (used[slot]) {
+            if (accountIds[slot] == accountId) {
+                return (int) averages[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return 0;
+    }
+
+    private void grow() {
+        var oldAccountIds = accountIds;
+        var oldAverages = averages;
+        var oldUsed = used;
+
+        allocate(oldAccountIds.length * 2);
+
+        var mask = accountIds.length - 1;
+        for (var i = 0; i < oldAccountIds.length; i++) {
+            if (!oldUsed[i]) {
+                continue;
+            }
+
+            var slot = AccountAggregates.hash(oldAccountIds[i]) & mask;
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+
+            used[slot] = true;
+            accountIds[slot] = oldAccountIds[i];
+            averages[slot] = oldAverages[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        accountIds = new int[capacity];
+        averages = new double[capacity];
+        used = new boolean[capacity];
+    }
+}
@@ -0,0 +1,13 @@
+package domain;
+
+public class ExcessiveDebitRule implements FraudRule {
+    @Override
+    public int score(TransactionHistory history, int transactionId, int accountId, int amount, boolean isDebit) {
+        return TransactionEngine.excessiveDebitScore(amount, isDebit, history.getAverageAmount(accountId));
+    }
+
+    @Override
+    public int cost() {
+        return 1;
+    }
+}
@@ -0,0 +1,13 @@
+package domain;
+
+public interface FraudRule {
+    // Returns a positive suspicion score, or 0 when the rule does not fire
+    int score(TransactionHistory history, int transactionId, int accountId, int amount, boolean isDebit);
+
+    // Relative evaluation cost; cheaper rules run first
+    int cost();
+
+    default String name() {
+        return getClass().getSimpleName();
+    }
+}
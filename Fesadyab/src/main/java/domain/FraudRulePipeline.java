@@ -0,0 +1,91 @@
+package domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class FraudRulePipeline {
+    // Replaced whole by adapt(), so readers on other threads always see a complete order
+    private volatile RuleState[] rules;
+
+    public FraudRulePipeline(List<? extends FraudRule> rules) {
+        this.rules = rules.stream().map(RuleState::new).toArray(RuleState[]::new);
+        Arrays.sort(this.rules, Comparator.comparingInt(state -> state.rule.cost()));
+    }
+
+    int evaluate(TransactionHistory history, int transactionId, int accountId, int amount, boolean isDebit) {
+        for (var state : rules) {
+            state.evaluations.setRelease(state.evaluations.getPlain() + 1);
+            var fraudScore = state.rule.score(history, transactionId, accountId, amount, isDebit);
+            if (fraudScore != 0) {
+                state.hits.setRelease(state.hits.getPlain() + 1);
+                return fraudScore;
+            }
+        }
+        return 0;
+    }
+
+    int evaluateTimed(TransactionHistory history, int transactionId, int accountId, int amount, boolean isDebit) {
+        for (var state : rules) {
+            state.evaluations.setRelease(state.evaluations.getPlain() + 1);
+            var start = System.nanoTime();
+            var fraudScore = state.rule.score(history, transactionId, accountId, amount, isDebit);
+            state.latency.record(System.nanoTime() - start);
+            if (fraudScore != 0) {
+                state.hits.setRelease(state.hits.getPlain() + 1);
+                return fraudScore;
+            }
+        }
+        return 0;
+    }
+
+    // Orders rules by expected cost per hit. This can change which score wins when several rules fire
+    // for the same transaction, so it is opt-in; call it from the thread that drives the engine.
+    public void adapt() {
+        var reordered = rules.clone();
+        Arrays.sort(reordered, Comparator.comparingDouble(RuleState::expectedCostPerHit));
+        rules = reordered;
+    }
+
+    public List<FraudRule> getRules() {
+        var result = new ArrayList<FraudRule>(rules.length);
+        for (var state : rules) {
+            result.add(state.rule);
+        }
+        return result;
+    }
+
+    public List<RuleStatistics> statistics() {
+        var result = new ArrayList<RuleStatistics>(rules.length);
+        for (var state : rules) {
+            result.add(new RuleStatistics(state.rule.name(), state.rule.cost(),
+                    state.evaluations.getAcquire(), state.hits.getAcquire(), state.latency.snapshot()));
+        }
+        return result;
+    }
+
+    private static class RuleState {
+        final FraudRule rule;
+        final AtomicLong evaluations = new AtomicLong();
+        final AtomicLong hits = new AtomicLong();
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        RuleState(FraudRule rule) {
+            this.rule = rule;
+        }
+
+        double expectedCostPerHit() {
+            // Laplace smoothing keeps unevaluated rules at their declared cost order
+            var hitRate = (hits.getAcquire() + 1.0) / (evaluations.getAcquire() + 2.0);
+            return rule.cost() / hitRate;
+        }
+    }
+
+    public record RuleStatistics(String name, int cost, long evaluations, long hits, LatencyHistogram.Snapshot latency) {
+        public double hitRate() {
+            return evaluations == 0 ? 0 : (double) hits / evaluations;
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+// HTTP/JSON front end with one virtual thread per connection, so tens of thousands of slow clients cost a parked
+// virtual thread each rather than a platform thread. Speaks just enough HTTP/1.1 for the two endpoints (keep-alive,
+// Content-Length bodies up to MAX_BODY_BYTES) on plain sockets with its own buffering: the JDK's built-in server reads
+// request bodies inside synchronized methods, which on JDK 21 pins the carrier thread for every trickling client.
+// What that server would otherwise bound is bounded here: a connection idle between requests is closed after
+// idleTimeoutMillis, a request that stalls for readTimeoutMillis gets 408, and past maxConnections new clients get 503.
+//
+// POST /transactions        {"transactionId":1,"accountId":2,"amount":300,"isDebit":true}
+//                           -> {"transactionId":1,"fraudScore":0}
+// POST /transactions/batch  [{...}, {...}] -> [{"transactionId":...,"fraudScore":...}, ...] in request order
+public class HttpScoringServer implements Closeable {
+    static final int MAX_BODY_BYTES = 1 << 20;
+    static final int MAX_HEADER_BYTES = 1 << 13;
+    static final int IDLE_TIMEOUT_MILLIS = 60_000;
+    static final int READ_TIMEOUT_MILLIS = 30_000;
+    static final int MAX_CONNECTIONS = 10_000;
+    static final int REJECT_DRAIN_MILLIS = 1_000;
+    static final long MIN_ACCEPT_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    static final long MAX_ACCEPT_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final System.Logger LOG = System.getLogger(HttpScoringServer.class.getName());
+
+    private final ServerSocket serverSocket;
+    private final ToIntFunction<Transaction> scorer;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+    private volatile boolean closed;
+    volatile int idleTimeoutMillis = IDLE_TIMEOUT_MILLIS;
+    volatile int readTimeoutMillis = READ_TIMEOUT_MILLIS;
+    volatile int maxConnections = MAX_CONNECTIONS;
+
+    private HttpScoringServer(ServerSocket serverSocket, ToIntFunction<Transaction> scorer) {
+        this.serverSocket = serverSocket;
+        this.scorer = scorer;
+        acceptor = Thread.ofPlatform().name("http-scoring-" + serverSocket.getLocalPort()).start(this::accept);
+    }
+
+    // Scores without a global lock; the engine runs the default rules
+    public static HttpScoringServer start(ConcurrentTransactionEngine engine, InetSocketAddress address) throws IOException {
+        return start(engine::addTransactionAndDetectFraud, address);
+    }
+
+    // Keeps the engine's own rules, store and snapshots; requests take turns on it behind a lock. Scoring is short next
+    // to the network time of a request, and the lock parks waiting virtual threads instead of pinning them.
+    public static HttpScoringServer start(TransactionEngine engine, InetSocketAddress address) throws IOException {
+        var lock = new ReentrantLock();
+        return start(txn -> {
+            lock.lock();
+            try {
+                return engine.addTransactionAndDetectFraud(txn);
+            } finally {
+                lock.unlock();
+            }
+        }, address);
+    }
+
+    private static HttpScoringServer start(ToIntFunction<Transaction> scorer, InetSocketAddress address) throws IOException {
+        var serverSocket = new ServerSocket();
+        try {
+            serverSocket.bind(address, 4096);
+        } catch (IOException e) {
+            serverSocket.close();
+            throw e;
+        }
+        return new HttpScoringServer(serverSocket, scorer);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        var server = start(new ConcurrentTransactionEngine(), new InetSocketAddress(port));
+        System.out.println("HttpScoringServer listening on " + server.address().getPort());
+        server.acceptor.join();
+    }
+
+    public InetSocketAddress address() {
+        var address = (InetSocketAddress) serverSocket.getLocalSocketAddress();
+        return address.getAddress().isAnyLocalAddress()
+                ? new InetSocketAddress(InetAddress.getLoopbackAddress(), address.getPort())
+                : address;
+    }
+
+    private void accept() {
+        var failures = 0;
+        while (!closed) {
+            try {
+                var socket = serverSocket.accept();
+                failures = 0;
+                if (connections.size() >= maxConnections) {
+                    executor.execute(() -> reject(socket));
+                    continue;
+                }
+                connections.add(socket);
+                if (closed) {
+                    socket.close();  // close() may have swept the connections before this one was added
+                    return;
+                }
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (closed) {
+                    return;
+                }
+                // Out of file descriptors or a connection reset before it was accepted. Out of descriptors fails
+                // every accept until a connection closes, so back off rather than spin, and log at doubling counts.
+                failures++;
+                if (Integer.bitCount(failures) == 1) {
+                    LOG.log(System.Logger.Level.WARNING, "Accept failed " + failures + " time(s) in a row", e);
+                }
+                LockSupport.parkNanos(Math.min(MAX_ACCEPT_BACKOFF_NANOS, MIN_ACCEPT_BACKOFF_NANOS << Math.min(failures - 1, 20)));
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            var reader = new RequestReader(socket.getInputStream());
+            var out = socket.getOutputStream();
+            Response response;
+            do {
+                try {
+                    response = next(socket, reader);
+                } catch (SocketTimeoutException e) {
+                    response = Response.close(408, TransactionJson.error("Request not received within " + readTimeoutMillis + " ms"));
+                }
+                if (response == null) {
+                    return;  // Client closed the connection between requests, or left it idle too long
+                }
+                out.write(response.bytes());
+            } while (response.keepAlive);
+        } catch (IOException e) {
+            // The client went away mid-request; nothing to answer
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    // Answers 503 without reading the request, then drains it briefly so closing does not reset the connection
+    // before the client has read the answer
+    private void reject(Socket socket) {
+        try (socket) {
+            socket.setSoTimeout(REJECT_DRAIN_MILLIS);
+            socket.getOutputStream().write(Response.close(503, TransactionJson.error("Too many connections")).bytes());
+            socket.shutdownOutput();
+            var in = socket.getInputStream();
+            var discard = new byte[MAX_HEADER_BYTES];
+            var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(REJECT_DRAIN_MILLIS);
+            while (in.read(discard) >= 0 && System.nanoTime() < deadline) {
+                // Discarding the request
+            }
+        } catch (IOException e) {
+            // The client went away or kept sending; either way it has been answered
+        }
+    }
+
+    private Response next(Socket socket, RequestReader reader) throws IOException {
+        socket.setSoTimeout(idleTimeoutMillis);
+        try {
+            if (!reader.awaitRequest()) {
+                return null;
+            }
+        } catch (SocketTimeoutException e) {
+            return null;
+        }
+
+        // Applies to every read of the request rather than to the request as a whole
+        socket.setSoTimeout(readTimeoutMillis);
+        var requestLine = reader.readHeaderLine();
+
+        var parts = requestLine.split(" ");
+        if (parts.length != 3 || !parts[2].startsWith("HTTP/1.")) {
+            return Response.close(400, TransactionJson.error("Malformed request line"));
+        }
+        var method = parts[0];
+        var query = parts[1].indexOf('?');
+        var path = query < 0 ? parts[1] : parts[1].substring(0, query);
+        var keepAlive = parts[2].equals("HTTP/1.1");
+
+        var contentLength = -1L;
+        var chunked = false;
+        String line;
+        while (!(line = reader.readHeaderLine()).isEmpty()) {
+            var colon = line.indexOf(':');
+            if (colon <= 0) {
+                return Response.close(400, TransactionJson.error("Malformed header"));
+            }
+            var name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            var value = line.substring(colon + 1).trim();
+            switch (name) {
+                case "content-length" -> {
+                    try {
+                        contentLength = Long.parseLong(value);
+                    } catch (NumberFormatException e) {
+                        return Response.close(400, TransactionJson.error("Malformed Content-Length"));
+                    }
+                }
+                case "transfer-encoding" -> chunked = true;
+                case "connection" -> {
+                    var tokens = value.toLowerCase(Locale.ROOT);
+                    if (tokens.contains("close")) {
+                        keepAlive = false;
+                    } else if (tokens.contains("keep-alive")) {
+                        keepAlive = true;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        if (chunked) {
+            return Response.close(411, TransactionJson.error("Send the body with Content-Length"));
+        }
+        if (contentLength > MAX_BODY_BYTES) {
+            return Response.close(413, TransactionJson.error("Body exceeds " + MAX_BODY_BYTES + " bytes"));
+        }
+        if (contentLength < 0 && "POST".equals(method)) {
+            return Response.close(411, TransactionJson.error("Content-Length required"));
+        }
+        var body = new String(reader.readBody((int) Math.max(contentLength, 0)), StandardCharsets.UTF_8);
+
+        if (!"POST".equals(method)) {
+            return new Response(405, TransactionJson.error("Use POST"), keepAlive, "Allow: POST\r\n");
+        }
+        try {
+            return switch (path) {
+                case "/transactions" -> new Response(200, scoreOne(body), keepAlive, "");
+                case "/transactions/batch" -> new Response(200, scoreBatch(body), keepAlive, "");
+                default -> new Response(404, TransactionJson.error("Unknown endpoint " + path), keepAlive, "");
+            };
+        } catch (IllegalArgumentException e) {
+            return new Response(400, TransactionJson.error(e.getMessage()), keepAlive, "");
+        } catch (RuntimeException e) {
+            // A failing rule; the request was read in full, so the connection stays usable
+            LOG.log(System.Logger.Level.ERROR, "Scoring failed", e);
+            return new Response(500, TransactionJson.error("Scoring failed"), keepAlive, "");
+        }
+    }
+
+    private String scoreOne(String body) {
+        var txn = TransactionJson.parseTransaction(body);
+        var out = new StringBuilder(64);
+        TransactionJson.appendScore(out, txn.transactionId, scorer.applyAsInt(txn));
+        return out.toString();
+    }
+
+    private String scoreBatch(String body) {
+        // Parse the whole batch first, so a malformed request scores nothing
+        var transactions = TransactionJson.parseTransactions(body);
+        var out = new StringBuilder(2 + transactions.size() * 40).append('[');
+        for (var i = 0; i < transactions.size(); i++) {
+            var txn = transactions.get(i);
+            if (i > 0) {
+                out.append(',');
+            }
+            TransactionJson.appendScore(out, txn.transactionId, scorer.applyAsInt(txn));
+        }
+        return out.append(']').toString();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+            // Closing anyway
+        }
+        for (var socket : connections) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Closing anyway
+            }
+        }
+        executor.close();
+    }
+
+    private record Response(int status, String json, boolean keepAlive, String extraHeaders) {
+        static Response close(int status, String json) {
+            return new Response(status, json, false, "");
+        }
+
+        byte[] bytes() {
+            var body = json.getBytes(StandardCharsets.UTF_8);
+            var head = "HTTP/1.1 " + status + " " + reason(status) + "\r\n"
+                    + "Content-Type: application/json\r\n"
+                    + "Content-Length: " + body.length + "\r\n"
+                    + (keepAlive ? "" : "Connection: close\r\n")
+                    + extraHeaders + "\r\n";
+            var headBytes = head.getBytes(StandardCharsets.ISO_8859_1);
+            var bytes = new byte[headBytes.length + body.length];
+            System.arraycopy(headBytes, 0, bytes, 0, headBytes.length);
+            System.arraycopy(body, 0, bytes, headBytes.length, body.length);
+            return bytes;
+        }
+
+        private static String reason(int status) {
+            return switch (status) {
+                case 200 -> "OK";
+                case 400 -> "Bad Request";
+                case 404 -> "Not Found";
+                case 405 -> "Method Not Allowed";
+                case 408 -> "Request Timeout";
+                case 411 -> "Length Required";
+                case 413 -> "Content Too Large";
+                case 500 -> "Internal Server Error";
+                case 503 -> "Service Unavailable";
+                default -> "Error";
+            };
+        }
+    }
+
+    // Plain buffering over the socket stream; BufferedInputStream and the JDK server's streams synchronize on reads
+    private static final class RequestReader {
+        private final InputStream in;
+        private final byte[] buffer = new byte[1 << 13];
+        private int position;
+        private int limit;
+        private int headerBytes;
+
+        RequestReader(InputStream in) {
+            this.in = in;
+        }
+
+        // False on a clean end of stream before the next request starts
+        boolean awaitRequest() throws IOException {
+            headerBytes = 0;
+            return position < limit || fill();
+        }
+
+        String readHeaderLine() throws IOException {
+            var line = new StringBuilder();
+            while (true) {
+                if (position == limit && !fill()) {
+                    throw new IOException("Connection closed inside the request head");
+                }
+                var b = buffer[position++];
+                if (++headerBytes > MAX_HEADER_BYTES) {
+                    throw new IOException("Request head exceeds " + MAX_HEADER_BYTES + " bytes");
+                }
+                if (b == '\n') {
+                    var end = line.length();
+                    if (end > 0 && line.charAt(end - 1) == '\r') {
+                        line.setLength(end - 1);
+                    }
+                    return line.toString();
+                }
+                line.append((char) (b & 0xFF));
+            }
+        }
+
+        byte[] readBody(int length) throws IOException {
+            var body = new byte[length];
+            var filled = Math.min(length, limit - position);
+            System.arraycopy(buffer, position, body, 0, filled);
+            position += filled;
+            while (filled < length) {
+                var read = in.read(body, filled, length - filled);
+                if (read < 0) {
+                    throw new IOException("Connection closed inside the request body");
+                }
+                filled += read;
+            }
+            return body;
+        }
+
+        private boolean fill() throws IOException {
+            var read = in.read(buffer);
+            if (read <= 0) {
+                return false;
+            }
+            position = 0;
+            limit = read;
+            return true;
+        }
+    }
+}
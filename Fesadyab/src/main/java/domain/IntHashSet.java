@@ -0,0 +1,133 @@
+package domain;
+
+class IntHashSet {
+    private static final int INITIAL_CAPACITY = 16;
+
+    int[] keys;
+    boolean[] used;
+    int size;
+
+    IntHashSet() {
+        this(INITIAL_CAPACITY);
+    }
+
+    IntHashSet(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    boolean add(int key) {
+        var mask = keys.length - 1;
+        var slot = AccountAggregates.hash(key) & mask;
+
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size + 1 > keys.length * 3 / 4) {
+            grow(keys.length * 2);
+            return add(key);
+        }
+
+        used[slot] = true;
+        keys[slot] = key;
+        size++;
+        return true;
+    }
+
+    boolean contains(int key) {
+        var mask = keys.length - 1;
+        var slot = AccountAggregates.hash(key) & mask;
+
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return false;
+    }
+
+    boolean remove(int key) {
+        var mask = keys.length - 1;
+        var slot = AccountAggregates.hash(key) & mask;
+
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                removeSlot(slot);
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void ensureCapacity(int expectedSize) {
+        var capacity = capacityFor(expectedSize);
+        if (capacity > keys.length) {
+            grow(capacity);
+        }
+    }
+
+    private void removeSlot(int slot) {
+        var mask = keys.length - 1;
+        var hole = slot;
+        var next = (hole + 1) & mask;
+
+        // Backward-shift deletion keeps every probe chain unbroken without tombstones
+        while (used[next]) {
+            var home = AccountAggregates.hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        used[hole] = false;
+        size--;
+    }
+
+    private void grow(int capacity) {
+        var oldKeys = keys;
+        var oldUsed = used;
+
+        allocate(capacity);
+
+        var mask = keys.length - 1;
+        for (var i = 0; i < oldKeys.length; i++) {
+            if (!oldUsed[i]) {
+                continue;
+            }
+
+            var slot = AccountAggregates.hash(oldKeys[i]) & mask;
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+
+            used[slot] = true;
+            keys[slot] = oldKeys[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        used = new boolean[capacity];
+    }
+
+    private static int capacityFor(int expectedSize) {
+        var capacity = INITIAL_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
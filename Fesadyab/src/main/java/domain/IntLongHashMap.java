@@ -0,0 +1,122 @@
+package domain;
+
+// IntHashSet with a long value per key
+class IntLongHashMap {
+    private static final int INITIAL_CAPACITY = 16;
+
+    int[] keys;
+    long[] values;
+    boolean[] used;
+    int size;
+
+    IntLongHashMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    // False, leaving the existing value, when the key is already present
+    boolean putIfAbsent(int key, long value) {
+        var mask = keys.length - 1;
+        var slot = AccountAggregates.hash(key) & mask;
+
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size + 1 > keys.length * 3 / 4) {
+            grow();
+            return putIfAbsent(key, value);
+        }
+
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return true;
+    }
+
+    boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    // Removes the key only while it still maps to the expected value
+    boolean remove(int key, long expected) {
+        var slot = find(key);
+        if (slot < 0 || values[slot] != expected) {
+            return false;
+        }
+
+        removeSlot(slot);
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int find(int key) {
+        var mask = keys.length - 1;
+        var slot = AccountAggregates.hash(key) & mask;
+
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    private void removeSlot(int slot) {
+        var mask = keys.length - 1;
+        var hole = slot;
+        var next = (hole + 1) & mask;
+
+        while (used[next]) {
+            var home = AccountAggregates.hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        used[hole] = false;
+        values[hole] = 0;
+        size--;
+    }
+
+    private void grow() {
+        var oldKeys = keys;
+        var oldValues = values;
+        var oldUsed = used;
+
+        allocate(oldKeys.length * 2);
+
+        var mask = keys.length - 1;
+        for (var i = 0; i < oldKeys.length; i++) {
+            if (!oldUsed[i]) {
+                continue;
+            }
+
+            var slot = AccountAggregates.hash(oldKeys[i]) & mask;
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+
+            used[slot] = true;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+    }
+}
@@ -0,0 +1,122 @@
+package domain;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Log-linear buckets in the style of HdrHistogram: values below 2^SUB_BUCKET_BITS are exact,
+// larger values keep SUB_BUCKET_BITS - 1 significant bits (under 1.6% relative error).
+// Written by a single thread and read by any; recording never allocates.
+public class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 7;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT >> 1;
+    static final int BUCKET_COUNT = (63 - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLongArray totals = new AtomicLongArray(4);  // count, sum, min, max
+
+    private static final int COUNT = 0;
+    private static final int SUM = 1;
+    private static final int MIN = 2;
+    private static final int MAX = 3;
+
+    public LatencyHistogram() {
+        totals.set(MIN, Long.MAX_VALUE);
+    }
+
+    public void record(long value) {
+        var clamped = Math.max(value, 0);
+        var index = indexOf(clamped);
+
+        counts.setRelease(index, counts.getPlain(index) + 1);
+        totals.setRelease(SUM, totals.getPlain(SUM) + clamped);
+        if (clamped < totals.getPlain(MIN)) {
+            totals.setRelease(MIN, clamped);
+        }
+        if (clamped > totals.getPlain(MAX)) {
+            totals.setRelease(MAX, clamped);
+        }
+        totals.setRelease(COUNT, totals.getPlain(COUNT) + 1);
+    }
+
+    public Snapshot snapshot() {
+        var bucketCounts = new long[BUCKET_COUNT];
+        var count = totals.getAcquire(COUNT);
+        for (var i = 0; i < BUCKET_COUNT; i++) {
+            bucketCounts[i] = counts.getAcquire(i);
+        }
+
+        return new Snapshot(bucketCounts, count, totals.getAcquire(SUM),
+                count == 0 ? 0 : totals.getAcquire(MIN), totals.getAcquire(MAX));
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        var shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return shift * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        var shift = index / HALF_SUB_BUCKET_COUNT - 1;
+        var subBucket = index % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+        return ((long) (subBucket + 1) << shift) - 1;
+    }
+
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long min;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long min, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMin() {
+            return min;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        public long getValueAtPercentile(double percentile) {
+            var total = 0L;
+            for (var c : counts) {
+                total += c;
+            }
+            if (total == 0) {
+                return 0;
+            }
+
+            var rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+            var seen = 0L;
+            for (var i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueAt(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
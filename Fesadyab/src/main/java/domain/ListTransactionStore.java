@@ -0,0 +1,57 @@
+package domain;
+
+import java.util.ArrayList;
+
+public class ListTransactionStore implements TransactionStore {
+    final ArrayList<Transaction> transactions = new ArrayList<>();
+
+    @Override
+    public void append(int transactionId, int accountId, int amount, boolean isDebit) {
+        var txn = new Transaction();
+        txn.transactionId = transactionId;
+        txn.accountId = accountId;
+        txn.amount = amount;
+        txn.isDebit = isDebit;
+        transactions.add(txn);
+    }
+
+    @Override
+    public void add(Transaction txn) {
+        transactions.add(txn);
+    }
+
+    @Override
+    public int size() {
+        return transactions.size();
+    }
+
+    @Override
+    public int transactionId(int index) {
+        return transactions.get(index).transactionId;
+    }
+
+    @Override
+    public int accountId(int index) {
+        return transactions.get(index).accountId;
+    }
+
+    @Override
+    public int amount(int index) {
+        return transactions.get(index).amount;
+    }
+
+    @Override
+    public boolean isDebit(int index) {
+        return transactions.get(index).isDebit;
+    }
+
+    @Override
+    public Transaction get(int index) {
+        return transactions.get(index);
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        transactions.ensureCapacity(capacity);
+    }
+}
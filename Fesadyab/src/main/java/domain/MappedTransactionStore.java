@@ -0,0 +1,151 @@
+package domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+public class MappedTransactionStore implements TransactionStore, Closeable {
+    static final int MAGIC = 0x46534442;  // "FSDB"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = TransactionRecord.SIZE;
+    static final int DEFAULT_RECORDS_PER_CHUNK = 1 << 22;  // 64 MiB per mapping
+
+    private static final int COUNT_OFFSET = 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final int chunkShift;
+    private final int chunkMask;
+    private MappedByteBuffer[] chunks;
+    private int size;
+
+    public MappedTransactionStore(Path path) throws IOException {
+        this(path, DEFAULT_RECORDS_PER_CHUNK);
+    }
+
+    public MappedTransactionStore(Path path, int recordsPerChunk) throws IOException {
+        if (recordsPerChunk <= 0 || Integer.bitCount(recordsPerChunk) != 1) {
+            throw new IllegalArgumentException("recordsPerChunk must be a power of two");
+        }
+
+        chunkShift = Integer.numberOfTrailingZeros(recordsPerChunk);
+        chunkMask = recordsPerChunk - 1;
+        chunks = new MappedByteBuffer[0];
+        channel = FileChannel.open(path, CREATE, READ, WRITE);
+
+        try {
+            var isNew = channel.size() == 0;
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if (isNew) {
+                header.putInt(0, MAGIC);
+                header.putInt(4, VERSION);
+                header.putLong(COUNT_OFFSET, 0);
+            } else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a transaction store: " + path);
+            }
+
+            var count = header.getLong(COUNT_OFFSET);
+            if (count < 0 || count > Integer.MAX_VALUE || HEADER_SIZE + count * RECORD_SIZE > channel.size()) {
+                throw new IOException("Corrupt transaction store header: " + path);
+            }
+            size = (int) count;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void append(int transactionId, int accountId, int amount, boolean isDebit) {
+        if (size == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Transaction store is full");
+        }
+
+        var chunk = chunk(size);
+        var offset = (size & chunkMask) * RECORD_SIZE;
+        TransactionRecord.write(chunk, offset, transactionId, accountId, amount, isDebit);
+
+        size++;
+        header.putLong(COUNT_OFFSET, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int transactionId(int index) {
+        return TransactionRecord.transactionId(record(index), offset(index));
+    }
+
+    @Override
+    public int accountId(int index) {
+        return TransactionRecord.accountId(record(index), offset(index));
+    }
+
+    @Override
+    public int amount(int index) {
+        return TransactionRecord.amount(record(index), offset(index));
+    }
+
+    @Override
+    public boolean isDebit(int index) {
+        return TransactionRecord.isDebit(record(index), offset(index));
+    }
+
+    public void force() {
+        for (var chunk : chunks) {
+            chunk.force();
+        }
+        header.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private MappedByteBuffer record(int index) {
+        Objects.checkIndex(index, size);
+        return chunk(index);
+    }
+
+    private int offset(int index) {
+        return (index & chunkMask) * RECORD_SIZE;
+    }
+
+    private MappedByteBuffer chunk(int index) {
+        var chunkIndex = index >>> chunkShift;
+        if (chunkIndex >= chunks.length) {
+            mapChunksUpTo(chunkIndex);
+        }
+        return chunks[chunkIndex];
+    }
+
+    private void mapChunksUpTo(int chunkIndex) {
+        var chunkBytes = (long) RECORD_SIZE << chunkShift;
+        var mapped = chunks.length;
+        chunks = Arrays.copyOf(chunks, chunkIndex + 1);
+
+        try {
+            for (var i = mapped; i <= chunkIndex; i++) {
+                chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + i * chunkBytes, chunkBytes);
+            }
+        } catch (IOException e) {
+            chunks = Arrays.copyOf(chunks, mapped);
+            throw new UncheckedIOException(e);
+        }
+    }
+}
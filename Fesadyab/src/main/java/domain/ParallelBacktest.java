@@ -0,0 +1,150 @@
+package domain;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Scores a historical dataset with the default rules, producing exactly what a fresh TransactionEngine would return
+// for the same transactions in order. Dedup runs partitioned by transactionId and excessive-debit scoring partitioned
+// by accountId, both on a ForkJoinPool; the cross-account threshold pattern is merged in a final sequential pass.
+public class ParallelBacktest {
+    private static final int PARTITIONS_PER_THREAD = 8;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    public ParallelBacktest() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelBacktest(ForkJoinPool pool) {
+        this(pool, TransactionEngine.DEFAULT_THRESHOLD);
+    }
+
+    public ParallelBacktest(ForkJoinPool pool, int threshold) {
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    public int[] score(List<Transaction> transactions) {
+        var dataset = new ColumnarTransactionStore();
+        dataset.ensureCapacity(transactions.size());
+        for (var txn : transactions) {
+            dataset.add(txn);
+        }
+        return score(dataset);
+    }
+
+    // The dataset is only read, so any store whose accessors are safe for concurrent readers works
+    public int[] score(TransactionStore dataset) {
+        var size = dataset.size();
+        var partitionCount = pool.getParallelism() * PARTITIONS_PER_THREAD;
+        var accepted = new boolean[size];
+        var fraudScores = new int[size];
+
+        var byTransaction = Partitioning.of(dataset, partitionCount, true);
+        pool.invoke(new PartitionTask(byTransaction, 0, partitionCount, (from, to) -> {
+            var seen = new IntHashSet(to - from);
+            for (var i = from; i < to; i++) {
+                var index = byTransaction.order[i];
+                accepted[index] = seen.add(dataset.transactionId(index));
+            }
+        }));
+
+        var byAccount = Partitioning.of(dataset, partitionCount, false);
+        pool.invoke(new PartitionTask(byAccount, 0, partitionCount, (from, to) -> {
+            var accountAggregates = new AccountAggregates();
+            for (var i = from; i < to; i++) {
+                var index = byAccount.order[i];
+                if (!accepted[index]) {
+                    continue;
+                }
+                var accountId = dataset.accountId(index);
+                var amount = dataset.amount(index);
+                fraudScores[index] = TransactionEngine.excessiveDebitScore(amount, dataset.isDebit(index), accountAggregates.average(accountId));
+                accountAggregates.add(accountId, amount);
+            }
+        }));
+
+        // Same short-circuit order as the default pipeline: the pattern only counts when the cheaper rule did not fire
+        var patternDetector = new ThresholdPatternDetector(threshold);
+        for (var i = 0; i < size; i++) {
+            if (!accepted[i]) {
+                continue;
+            }
+            if (fraudScores[i] == 0) {
+                fraudScores[i] = patternDetector.pattern();
+            }
+            patternDetector.accept(dataset.transactionId(i), dataset.amount(i));
+        }
+        return fraudScores;
+    }
+
+    // Dataset indices grouped by partition with a stable counting sort, so each partition sees its rows in input order
+    private static final class Partitioning {
+        final int[] order;
+        final int[] starts;
+
+        private Partitioning(int[] order, int[] starts) {
+            this.order = order;
+            this.starts = starts;
+        }
+
+        static Partitioning of(TransactionStore dataset, int partitionCount, boolean byTransactionId) {
+            var size = dataset.size();
+            var partitions = new int[size];
+            var starts = new int[partitionCount + 1];
+
+            for (var i = 0; i < size; i++) {
+                var key = byTransactionId ? dataset.transactionId(i) : dataset.accountId(i);
+                // High bits of the hash, so the keys within one partition still spread over the low bits the hash tables use
+                partitions[i] = (int) ((AccountAggregates.hash(key) & 0xFFFFFFFFL) * partitionCount >>> 32);
+                starts[partitions[i] + 1]++;
+            }
+            for (var p = 0; p < partitionCount; p++) {
+                starts[p + 1] += starts[p];
+            }
+
+            var order = new int[size];
+            var next = starts.clone();
+            for (var i = 0; i < size; i++) {
+                order[next[partitions[i]]++] = i;
+            }
+            return new Partitioning(order, starts);
+        }
+    }
+
+    @FunctionalInterface
+    private interface PartitionScorer {
+        void score(int from, int to);
+    }
+
+    // ForkJoinTask is Serializable, but tasks only ever live inside one pool, so the shared state is transient
+    private static final class PartitionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Partitioning partitioning;
+        private final int fromPartition;
+        private final int toPartition;
+        private final transient PartitionScorer scorer;
+
+        PartitionTask(Partitioning partitioning, int fromPartition, int toPartition, PartitionScorer scorer) {
+            this.partitioning = partitioning;
+            this.fromPartition = fromPartition;
+            this.toPartition = toPartition;
+            this.scorer = scorer;
+        }
+
+        @Override
+        protected void compute() {
+            if (toPartition - fromPartition == 1) {
+                scorer.score(partitioning.starts[fromPartition], partitioning.starts[toPartition]);
+                return;
+            }
+
+            var middle = (fromPartition + toPartition) >>> 1;
+            invokeAll(new PartitionTask(partitioning, fromPartition, middle, scorer),
+                    new PartitionTask(partitioning, middle, toPartition, scorer));
+        }
+    }
+}
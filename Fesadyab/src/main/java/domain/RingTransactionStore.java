@@ -0,0 +1,91 @@
+package domain;
+
+import java.util.Objects;
+
+public class RingTransactionStore implements TransactionStore {
+    final int[] transactionIds;
+    final int[] accountIds;
+    final int[] amounts;
+    final long[] debitBits;
+    int head;
+    int size;
+
+    public RingTransactionStore(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        transactionIds = new int[capacity];
+        accountIds = new int[capacity];
+        amounts = new int[capacity];
+        debitBits = new long[(capacity + 63) >>> 6];
+    }
+
+    @Override
+    public void append(int transactionId, int accountId, int amount, boolean isDebit) {
+        if (size == transactionIds.length) {
+            throw new IllegalStateException("Ring is full; remove the oldest transaction first");
+        }
+
+        var slot = physical(size);
+        transactionIds[slot] = transactionId;
+        accountIds[slot] = accountId;
+        amounts[slot] = amount;
+        if (isDebit) {
+            debitBits[slot >>> 6] |= 1L << slot;
+        } else {
+            debitBits[slot >>> 6] &= ~(1L << slot);
+        }
+        size++;
+    }
+
+    @Override
+    public void removeFirst() {
+        if (size == 0) {
+            throw new IllegalStateException("Ring is empty");
+        }
+
+        head = physical(1);
+        size--;
+    }
+
+    @Override
+    public int capacity() {
+        return transactionIds.length;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int transactionId(int index) {
+        return transactionIds[slot(index)];
+    }
+
+    @Override
+    public int accountId(int index) {
+        return accountIds[slot(index)];
+    }
+
+    @Override
+    public int amount(int index) {
+        return amounts[slot(index)];
+    }
+
+    @Override
+    public boolean isDebit(int index) {
+        var slot = slot(index);
+        return (debitBits[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    private int slot(int index) {
+        return physical(Objects.checkIndex(index, size));
+    }
+
+    private int physical(int index) {
+        var slot = head + index;
+        return slot >= transactionIds.length ? slot - transactionIds.length : slot;
+    }
+}
@@ -0,0 +1,279 @@
+package domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+
+// Standalone TCP front end for one TransactionEngine. A single selector thread owns the engine, so scoring needs no
+// locks and no thread per connection.
+//
+// Request frame:  int length, then length / 16 TransactionRecord entries.
+// Response frame: int length, then one (int transactionId, int fraudScore) pair per record, in request order.
+// Clients may pipeline any number of frames; responses are produced while a frame is still arriving, and everything
+// scored in one selector pass goes out in a single write per connection. A client that shuts down its output still
+// gets the responses to everything it sent before the connection is closed.
+public class ScoringServer implements Closeable {
+    static final int BUFFER_SIZE = 1 << 16;
+    static final int SCORE_SIZE = 8;
+
+    private final TransactionEngine engine;
+    private final TransactionRecordDecoder decoder;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ArrayList<Connection> pendingWrites = new ArrayList<>();
+    private final Thread selectorThread;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    private ScoringServer(TransactionEngine engine, Selector selector, ServerSocketChannel serverChannel) {
+        this.engine = engine;
+        this.decoder = new TransactionRecordDecoder(engine);
+        this.selector = selector;
+        this.serverChannel = serverChannel;
+        selectorThread = Thread.ofPlatform().name("scoring-server").start(this::run);
+    }
+
+    public static ScoringServer start(TransactionEngine engine, InetSocketAddress address) throws IOException {
+        var selector = Selector.open();
+        var serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+        return new ScoringServer(engine, selector, serverChannel);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        var server = start(new TransactionEngine(), new InetSocketAddress(port));
+        System.out.println("ScoringServer listening on " + server.address().getPort());
+        server.selectorThread.join();
+    }
+
+    public InetSocketAddress address() throws IOException {
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    // What stopped the selector thread, or null while it runs and after a normal close. A failing connection only
+    // drops that connection.
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    // Only safe to read once the server is closed; the selector thread owns the engine while it runs
+    public TransactionEngine getEngine() {
+        return engine;
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                selector.select();
+                for (var key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        var connection = (Connection) key.attachment();
+                        try {
+                            if (key.isWritable()) {
+                                connection.write();
+                            }
+                            if (key.isValid() && key.isReadable()) {
+                                connection.read();
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            connection.close();  // Bad input, a dead peer or a failing rule; other clients keep going
+                        }
+                    }
+                }
+                selector.selectedKeys().clear();
+
+                // Coalesced flush: one write per connection for everything scored in this pass
+                for (var connection : pendingWrites) {
+                    try {
+                        connection.write();
+                    } catch (IOException | RuntimeException e) {
+                        connection.close();
+                    }
+                }
+                pendingWrites.clear();
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            failure = e;  // Selector failure; release everything below
+        } finally {
+            for (var key : selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException ignored) {
+                    // Closing anyway
+                }
+            }
+        }
+    }
+
+    private void accept() {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (IOException e) {
+                return;  // Typically out of file descriptors; the connection stays queued for the next select
+            }
+            if (channel == null) {
+                return;
+            }
+
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                var key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new Connection(channel, key));
+            } catch (IOException e) {
+                try {
+                    channel.close();  // Reset during setup; only this client is affected
+                } catch (IOException ignored) {
+                    // Nothing left to release
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        selector.wakeup();
+        try {
+            selectorThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        serverChannel.close();
+        selector.close();
+    }
+
+    private final class Connection implements TransactionRecordDecoder.ScoreHandler {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private int frameRecordsLeft;
+        private boolean pendingWrite;
+        private boolean inputShutdown;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        void read() throws IOException {
+            if (channel.read(in) < 0) {
+                inputShutdown = true;
+            }
+            score();
+            if (inputShutdown && out.position() == 0) {
+                close();  // Nothing left to answer; an incomplete trailing frame never will be
+                return;
+            }
+
+            if (out.position() > 0 && !pendingWrite) {
+                pendingWrite = true;
+                pendingWrites.add(this);
+            }
+        }
+
+        // Scores as many buffered records as the output buffer has room for; the rest wait for the next write
+        private void score() throws IOException {
+            in.flip();
+            try {
+                while (true) {
+                    if (frameRecordsLeft == 0) {
+                        if (in.remaining() < Integer.BYTES || out.remaining() < Integer.BYTES) {
+                            break;
+                        }
+                        var length = in.getInt();
+                        if (length < 0 || length % TransactionRecord.SIZE != 0) {
+                            throw new IOException("Invalid frame length " + length);
+                        }
+                        frameRecordsLeft = length / TransactionRecord.SIZE;
+                        out.putInt(frameRecordsLeft * SCORE_SIZE);
+                        continue;
+                    }
+
+                    var records = Math.min(frameRecordsLeft,
+                            Math.min(in.remaining() / TransactionRecord.SIZE, out.remaining() / SCORE_SIZE));
+                    if (records == 0) {
+                        break;
+                    }
+
+                    var limit = in.limit();
+                    in.limit(in.position() + records * TransactionRecord.SIZE);
+                    decoder.decode(in, this);
+                    in.limit(limit);
+                    frameRecordsLeft -= records;
+                }
+            } finally {
+                in.compact();
+            }
+        }
+
+        @Override
+        public void onScore(int transactionId, int fraudScore) {
+            out.putInt(transactionId);
+            out.putInt(fraudScore);
+        }
+
+        void write() throws IOException {
+            pendingWrite = false;
+            if (!key.isValid()) {
+                return;
+            }
+
+            out.flip();
+            channel.write(out);
+            out.compact();
+
+            // Room in the output buffer may unblock records that were waiting for it; they go out on the next OP_WRITE
+            if (in.position() > 0 && out.remaining() >= SCORE_SIZE) {
+                score();
+            }
+            if (inputShutdown && out.position() == 0) {
+                close();
+                return;
+            }
+
+            // Stop reading while the input buffer is full, so a slow reader cannot make us buffer without bound
+            var ops = 0;
+            if (out.position() > 0) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            if (in.hasRemaining() && !inputShutdown) {
+                ops |= SelectionKey.OP_READ;
+            }
+            key.interestOps(ops);
+        }
+
+        void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Nothing left to release
+            }
+        }
+    }
+}
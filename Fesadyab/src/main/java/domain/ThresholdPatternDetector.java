@@ -0,0 +1,46 @@
+package domain;
+
+class ThresholdPatternDetector {
+    final int threshold;
+    boolean started;
+    boolean broken;
+    int previousId;
+    int previousAmount;
+    int diff;
+
+    ThresholdPatternDetector(int threshold) {
+        this.threshold = threshold;
+    }
+
+    void accept(int transactionId, int amount) {
+        if (!started) {
+            started = true;
+            previousId = transactionId;
+            previousAmount = amount;
+            return;
+        }
+
+        if (broken || transactionId == previousId || amount <= threshold) {
+            return;
+        }
+
+        if (diff == 0) {
+            diff = amount - previousAmount;
+            previousId = transactionId;
+            previousAmount = amount;
+        } else if (diff != amount - previousAmount) {
+            broken = true;
+        }
+    }
+
+    void scan(TransactionStore store) {
+        var size = store.size();
+        for (var i = 0; i < size && !broken; i++) {
+            accept(store.transactionId(i), store.amount(i));
+        }
+    }
+
+    int pattern() {
+        return broken ? 0 : diff;
+    }
+}
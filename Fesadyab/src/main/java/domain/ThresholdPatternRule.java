@@ -0,0 +1,19 @@
+package domain;
+
+public class ThresholdPatternRule implements FraudRule {
+    private final int threshold;
+
+    public ThresholdPatternRule(int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public int score(TransactionHistory history, int transactionId, int accountId, int amount, boolean isDebit) {
+        return history.getPatternAboveThreshold(threshold);
+    }
+
+    @Override
+    public int cost() {
+        return 2;
+    }
+}
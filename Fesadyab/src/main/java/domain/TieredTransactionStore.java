@@ -0,0 +1,676 @@
+package domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+// Unbounded history with a bounded heap. The most recent transactions live in an in-memory ring; once it fills, its
+// older half is compacted into an immutable segment file and served from a read-only mapping from then on. Each
+// segment ends with a per-account index of (accountId, count, sum) sorted by account, and each compaction merges that
+// index into a totals file covering every segment, so a full-history average reads one entry of one mapped file
+// however many segments there are. close() compacts whatever is still hot, so a clean shutdown leaves the whole audit
+// history on disk and reopening the directory serves it again.
+//
+// The hot tier is not durable. A crash loses every record appended since the last compaction, up to hotCapacity of
+// them; call flush() wherever appended records must survive one, or log them ahead (see WriteAheadLog).
+//
+// Segment file: magic, version, firstIndex, recordCount, accountCount, reserved (all ints), then recordCount
+// TransactionRecord entries in arrival order, then accountCount 16-byte index entries.
+// Totals file: magic, version, coveredSize, accountCount (all ints), then accountCount 16-byte index entries summing
+// every segment below coveredSize. Only the newest is kept; a crash before it is replaced leaves an older one, which
+// opening catches up by merging the segments it does not cover. Removed files have the same layout and sum the
+// transactions below coveredSize that were removed through accountStatistics().
+public class TieredTransactionStore implements TransactionStore, Closeable {
+    static final int MAGIC = 0x46535347;  // "FSSG"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+    static final int INDEX_ENTRY_SIZE = 16;
+    static final int TOTALS_MAGIC = 0x46535454;  // "FSTT"
+    static final int TOTALS_HEADER_SIZE = 16;
+    static final int DEFAULT_HOT_CAPACITY = 1 << 20;
+    static final int MAX_HOT_CAPACITY = 1 << 26;  // Keeps every segment under the 2 GiB limit of one mapping
+    static final int DEFAULT_CACHED_ACCOUNTS = 1 << 16;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String TOTALS_PREFIX = "totals-";
+    private static final String TOTALS_SUFFIX = ".idx";
+    private static final String REMOVED_PREFIX = "removed-";
+
+    private final Path directory;
+    private final RingTransactionStore hot;
+    private final AccountAggregates hotAggregates;
+    private final ArrayList<Segment> segments = new ArrayList<>();
+    private Totals totals;  // Null until the first segment
+    private int coldSize;
+    private Statistics statistics;
+
+    // Cold totals of recently read accounts, evicted by clock: the hand passes over accounts read since it last came
+    // by, clearing their mark, and evicts the first unmarked one
+    final AccountAggregates coldTotals;
+    private final int[] cachedIds;
+    private final IntHashSet referenced = new IntHashSet();
+    private int hand;
+
+    public TieredTransactionStore(Path directory) throws IOException {
+        this(directory, DEFAULT_HOT_CAPACITY, DEFAULT_CACHED_ACCOUNTS);
+    }
+
+    public TieredTransactionStore(Path directory, int hotCapacity, int cachedAccounts) throws IOException {
+        if (hotCapacity < 2 || hotCapacity > MAX_HOT_CAPACITY) {
+            throw new IllegalArgumentException("hotCapacity must be between 2 and " + MAX_HOT_CAPACITY);
+        }
+        if (cachedAccounts <= 0) {
+            throw new IllegalArgumentException("cachedAccounts must be positive");
+        }
+
+        this.directory = Files.createDirectories(directory);
+        hot = new RingTransactionStore(hotCapacity);
+        hotAggregates = new AccountAggregates(hotCapacity);
+        coldTotals = new AccountAggregates(cachedAccounts);
+        cachedIds = new int[cachedAccounts];
+        openSegments();
+    }
+
+    private void openSegments() throws IOException {
+        var paths = new ArrayList<Path>();
+        var totalsPaths = new ArrayList<Path>();
+        var removedPaths = new ArrayList<Path>();
+        try (var files = Files.list(directory)) {
+            for (var path : (Iterable<Path>) files::iterator) {
+                var name = path.getFileName().toString();
+                if (name.endsWith(SEGMENT_SUFFIX + ".tmp") || name.endsWith(TOTALS_SUFFIX + ".tmp")) {
+                    Files.delete(path);  // Compaction died before the rename; the records were still hot
+                } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    paths.add(path);
+                } else if (name.startsWith(TOTALS_PREFIX) && name.endsWith(TOTALS_SUFFIX)) {
+                    totalsPaths.add(path);
+                } else if (name.startsWith(REMOVED_PREFIX) && name.endsWith(TOTALS_SUFFIX)) {
+                    removedPaths.add(path);
+                }
+            }
+        }
+        paths.sort(null);  // Zero-padded first indices sort numerically
+        totalsPaths.sort(null);
+        removedPaths.sort(null);
+
+        for (var path : paths) {
+            var segment = Segment.open(path);
+            if (segment.firstIndex != coldSize) {
+                throw new IOException("Segment " + path + " starts at " + segment.firstIndex + ", expected " + coldSize);
+            }
+            segments.add(segment);
+            coldSize += segment.recordCount;
+        }
+
+        // The newest valid totals file that ends on a segment boundary; the rest are leftovers of interrupted
+        // compactions. Totals only summarize the segments, so a bad one is rebuilt rather than fatal.
+        for (var k = totalsPaths.size() - 1; k >= 0 && totals == null; k--) {
+            try {
+                var candidate = Totals.open(totalsPaths.get(k));
+                if (endsOnSegment(candidate.coveredSize)) {
+                    totals = candidate;
+                    totalsPaths.remove(k);
+                }
+            } catch (IOException e) {
+                // Deleted below
+            }
+        }
+        for (var path : totalsPaths) {
+            Files.delete(path);
+        }
+        catchUpTotals();
+
+        // Removals are only written once their records are in segments, so a newer file cannot be valid
+        Totals removed = null;
+        if (!removedPaths.isEmpty()) {
+            removed = Totals.open(removedPaths.remove(removedPaths.size() - 1));
+            if (removed.coveredSize > coldSize) {
+                throw new IOException("Removals cover " + removed.coveredSize + " transactions, the segments only " + coldSize);
+            }
+        }
+        for (var path : removedPaths) {
+            Files.delete(path);
+        }
+        statistics = new Statistics(removed);
+    }
+
+    private boolean endsOnSegment(int size) {
+        for (var segment : segments) {
+            if (segment.firstIndex + segment.recordCount == size) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void append(int transactionId, int accountId, int amount, boolean isDebit) {
+        if (size() == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Transaction store is full");
+        }
+
+        hot.append(transactionId, accountId, amount, isDebit);
+        hotAggregates.add(accountId, amount);
+        if (hot.size() == hot.capacity()) {
+            compact(hot.size() / 2);
+        }
+    }
+
+    // Moves everything still hot into a segment, making it durable. Each call writes a segment, so flushing after
+    // every append trades the tier's batching for durability.
+    public void flush() {
+        if (hot.size() > 0) {
+            compact(hot.size());
+        } else {
+            try {
+                statistics.writeRemoved();  // Removals of records compacted earlier, which that compaction left hot
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void compact(int records) {
+        var summary = new AccountAggregates(Math.min(records, 1 << 16));
+        for (var i = 0; i < records; i++) {
+            summary.add(hot.accountId(i), hot.amount(i));
+        }
+        var accounts = new int[summary.size];
+        var accountCount = 0;
+        for (var slot = 0; slot < summary.used.length; slot++) {
+            if (summary.used[slot]) {
+                accounts[accountCount++] = summary.accountIds[slot];
+            }
+        }
+        Arrays.sort(accounts);
+
+        Segment segment;
+        try {
+            segment = write(records, accounts, summary);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Only drop the records from the heap once they are durable on disk
+        segments.add(segment);
+        coldSize += records;
+        for (var account : accounts) {
+            if (coldTotals.contains(account)) {
+                coldTotals.add(account, summary.sum(account), summary.count(account));
+            }
+        }
+        for (var i = 0; i < records; i++) {
+            hotAggregates.remove(hot.accountId(0), hot.amount(0));
+            hot.removeFirst();
+        }
+
+        // If this fails, lookups read the uncovered segments directly and the next compaction retries
+        try {
+            catchUpTotals();
+            statistics.writeRemoved();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void catchUpTotals() throws IOException {
+        var covered = totals == null ? 0 : totals.coveredSize;
+        for (var segment : segments) {
+            if (segment.firstIndex >= covered) {
+                totals = merge(TOTALS_PREFIX, totals, segment.index, segment.firstIndex + segment.recordCount);
+            }
+        }
+    }
+
+    // The previous totals and the next index, both sorted by account, merged into a new file that replaces them
+    private Totals merge(String prefix, Totals previous, Index next, int coveredSize) throws IOException {
+        var previousIndex = previous == null ? Index.EMPTY : previous.index;
+        var segmentIndex = next;
+        var accountCount = 0;
+        for (int i = 0, j = 0; i < previousIndex.entries || j < segmentIndex.entries; accountCount++) {
+            var order = compare(previousIndex, i, segmentIndex, j);
+            i += order <= 0 ? 1 : 0;
+            j += order >= 0 ? 1 : 0;
+        }
+
+        var path = directory.resolve(String.format(Locale.ROOT, "%s%010d%s", prefix, coveredSize, TOTALS_SUFFIX));
+        var tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (var channel = FileChannel.open(tmp, CREATE_NEW, READ, WRITE)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, TOTALS_HEADER_SIZE + (long) accountCount * INDEX_ENTRY_SIZE);
+            buffer.putInt(0, TOTALS_MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, coveredSize);
+            buffer.putInt(12, accountCount);
+            var entry = TOTALS_HEADER_SIZE;
+            for (int i = 0, j = 0; i < previousIndex.entries || j < segmentIndex.entries; entry += INDEX_ENTRY_SIZE) {
+                var order = compare(previousIndex, i, segmentIndex, j);
+                var count = 0;
+                var sum = 0L;
+                if (order <= 0) {
+                    buffer.putInt(entry, previousIndex.accountId(i));
+                    count += previousIndex.count(i);
+                    sum += previousIndex.sum(i++);
+                }
+                if (order >= 0) {
+                    buffer.putInt(entry, segmentIndex.accountId(j));
+                    count += segmentIndex.count(j);
+                    sum += segmentIndex.sum(j++);
+                }
+                buffer.putInt(entry + 4, count);
+                buffer.putLong(entry + 8, sum);
+            }
+            buffer.force();
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+
+        if (previous != null) {
+            try {
+                Files.delete(previous.path);
+            } catch (IOException e) {
+                // Still mapped on platforms that refuse to delete mapped files; the next open removes it
+            }
+        }
+        return Totals.open(path);
+    }
+
+    // Which of the two next entries comes first by account, with an exhausted index ordered last
+    private static int compare(Index left, int i, Index right, int j) {
+        if (j == right.entries) {
+            return -1;
+        }
+        if (i == left.entries) {
+            return 1;
+        }
+        return Integer.compare(left.accountId(i), right.accountId(j));
+    }
+
+    private Segment write(int records, int[] accounts, AccountAggregates summary) throws IOException {
+        var path = directory.resolve(String.format(Locale.ROOT, "%s%010d%s", SEGMENT_PREFIX, coldSize, SEGMENT_SUFFIX));
+        var tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        var indexOffset = HEADER_SIZE + records * TransactionRecord.SIZE;
+
+        try (var channel = FileChannel.open(tmp, CREATE_NEW, READ, WRITE)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, indexOffset + (long) accounts.length * INDEX_ENTRY_SIZE);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, coldSize);
+            buffer.putInt(12, records);
+            buffer.putInt(16, accounts.length);
+            for (var i = 0; i < records; i++) {
+                TransactionRecord.write(buffer, HEADER_SIZE + i * TransactionRecord.SIZE,
+                        hot.transactionId(i), hot.accountId(i), hot.amount(i), hot.isDebit(i));
+            }
+            for (var k = 0; k < accounts.length; k++) {
+                var entry = indexOffset + k * INDEX_ENTRY_SIZE;
+                buffer.putInt(entry, accounts[k]);
+                buffer.putInt(entry + 4, summary.count(accounts[k]));
+                buffer.putLong(entry + 8, summary.sum(accounts[k]));
+            }
+            buffer.force();
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();  // Makes the rename itself durable
+        return Segment.open(path);
+    }
+
+    private void syncDirectory() throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, READ);
+        } catch (IOException e) {
+            return;  // Platforms that cannot open a directory (Windows) make renames durable on their own
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    // The aggregates as an index sorted by account, for merging into a file
+    private static Index sortedIndex(AccountAggregates aggregates) {
+        var accounts = new int[aggregates.size];
+        var accountCount = 0;
+        for (var slot = 0; slot < aggregates.used.length; slot++) {
+            if (aggregates.used[slot]) {
+                accounts[accountCount++] = aggregates.accountIds[slot];
+            }
+        }
+        Arrays.sort(accounts);
+
+        var buffer = ByteBuffer.allocate(accounts.length * INDEX_ENTRY_SIZE);
+        for (var k = 0; k < accounts.length; k++) {
+            buffer.putInt(k * INDEX_ENTRY_SIZE, accounts[k]);
+            buffer.putInt(k * INDEX_ENTRY_SIZE + 4, aggregates.count(accounts[k]));
+            buffer.putLong(k * INDEX_ENTRY_SIZE + 8, aggregates.sum(accounts[k]));
+        }
+        return new Index(buffer, 0, accounts.length);
+    }
+
+    @Override
+    public int size() {
+        return coldSize + hot.size();
+    }
+
+    public int hotSize() {
+        return hot.size();
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public int transactionId(int index) {
+        return index >= coldSize ? hot.transactionId(index - coldSize) : segmentFor(index).transactionId(index);
+    }
+
+    @Override
+    public int accountId(int index) {
+        return index >= coldSize ? hot.accountId(index - coldSize) : segmentFor(index).accountId(index);
+    }
+
+    @Override
+    public int amount(int index) {
+        return index >= coldSize ? hot.amount(index - coldSize) : segmentFor(index).amount(index);
+    }
+
+    @Override
+    public boolean isDebit(int index) {
+        return index >= coldSize ? hot.isDebit(index - coldSize) : segmentFor(index).isDebit(index);
+    }
+
+    private Segment segmentFor(int index) {
+        Objects.checkIndex(index, coldSize);
+        var low = 0;
+        var high = segments.size() - 1;
+        while (low < high) {
+            var middle = (low + high + 1) >>> 1;
+            if (segments.get(middle).firstIndex <= index) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return segments.get(low);
+    }
+
+    // Exact average over the full history. The hot tier answers from memory; the cold part comes from a bounded cache
+    // of per-account totals that compaction keeps current, and only a cache miss reads the segment indexes.
+    public int averageAmount(int accountId) {
+        return averageAmount(accountId, 0, 0);
+    }
+
+    private int averageAmount(int accountId, long removedSum, long removedCount) {
+        var count = count(accountId) - removedCount;
+        if (count <= 0) {
+            return 0;
+        }
+        return (int) ((hotAggregates.sum(accountId) + coldTotals.sum(accountId) - removedSum) / count);
+    }
+
+    // Also leaves the account's cold totals in the cache for the caller
+    private long count(int accountId) {
+        if (coldTotals.contains(accountId)) {
+            referenced.add(accountId);
+        } else {
+            loadColdTotals(accountId);
+        }
+        return (long) hotAggregates.count(accountId) + coldTotals.count(accountId);
+    }
+
+    private void loadColdTotals(int accountId) {
+        var sum = 0L;
+        var count = 0;
+        var covered = 0;
+        if (totals != null) {
+            var entry = totals.index.find(accountId);
+            if (entry >= 0) {
+                sum = totals.index.sum(entry);
+                count = totals.index.count(entry);
+            }
+            covered = totals.coveredSize;
+        }
+        // Only after a failed totals merge, until the next compaction catches up
+        for (var k = segments.size() - 1; k >= 0 && segments.get(k).firstIndex >= covered; k--) {
+            var entry = segments.get(k).index.find(accountId);
+            if (entry >= 0) {
+                sum += segments.get(k).index.sum(entry);
+                count += segments.get(k).index.count(entry);
+            }
+        }
+
+        if (coldTotals.size < cachedIds.length) {
+            cachedIds[coldTotals.size] = accountId;
+        } else {
+            while (referenced.remove(cachedIds[hand])) {
+                hand = (hand + 1) % cachedIds.length;
+            }
+            coldTotals.removeAll(cachedIds[hand]);
+            cachedIds[hand] = accountId;
+            hand = (hand + 1) % cachedIds.length;
+        }
+        coldTotals.add(accountId, sum, count);
+    }
+
+    // Statistics view for TransactionHistory, one per store: every baseline is the exact full-history average. The
+    // store keeps its totals itself as transactions are appended, so add only checks that the history indexes the
+    // store's records in order, one call each; a second history on the same store fails there.
+    //
+    // TransactionHistory only removes when its store is full, which this one never is, so remove is for callers that
+    // keep their own window over the history. They must remove oldest first, which keeps what was removed a prefix of
+    // the store: compaction writes the part of it that is already in segments to a removed file, so only the removals
+    // of hot records stay in memory, and reopening the directory restores the removals written so far.
+    public AccountStatistics accountStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private final class Statistics implements AccountStatistics {
+        private int added;
+        private int removedCount;
+        private Totals removed;  // Removals below removed.coveredSize
+        private final AccountAggregates removing = new AccountAggregates();  // Removals since, none of them cold
+
+        Statistics(Totals removed) {
+            this.removed = removed;
+            removedCount = removed == null ? 0 : removed.coveredSize;
+        }
+
+        @Override
+        public void add(int accountId, int amount) {
+            if (added == size() || accountId(added) != accountId || amount(added) != amount) {
+                throw new IllegalStateException("Statistics of a tiered store must be added the store's transactions in order");
+            }
+            added++;
+        }
+
+        @Override
+        public void remove(int accountId, int amount) {
+            if (removedCount >= added || accountId(removedCount) != accountId || amount(removedCount) != amount) {
+                throw new IllegalStateException("Statistics of a tiered store must be removed the oldest transaction first");
+            }
+            removedCount++;
+            removing.add(accountId, amount);
+        }
+
+        @Override
+        public int average(int accountId) {
+            var removedSum = removing.sum(accountId);
+            long removedCount = removing.count(accountId);
+            if (removed != null) {
+                var entry = removed.index.find(accountId);
+                if (entry >= 0) {
+                    removedSum += removed.index.sum(entry);
+                    removedCount += removed.index.count(entry);
+                }
+            }
+            return averageAmount(accountId, removedSum, removedCount);
+        }
+
+        // Moves the removals of records now in segments from memory to the removed file
+        void writeRemoved() throws IOException {
+            var from = removed == null ? 0 : removed.coveredSize;
+            var to = Math.min(removedCount, coldSize);
+            if (to <= from) {
+                return;
+            }
+
+            var moved = new AccountAggregates();
+            for (var i = from; i < to; i++) {
+                moved.add(accountId(i), amount(i));
+            }
+            removed = merge(REMOVED_PREFIX, removed, sortedIndex(moved), to);
+            for (var i = from; i < to; i++) {
+                removing.remove(accountId(i), amount(i));
+            }
+        }
+    }
+
+    private static final class Segment {
+        final int firstIndex;
+        final int recordCount;
+        final MappedByteBuffer buffer;
+        final Index index;
+
+        private Segment(int firstIndex, int recordCount, int accountCount, MappedByteBuffer buffer) {
+            this.firstIndex = firstIndex;
+            this.recordCount = recordCount;
+            this.buffer = buffer;
+            index = new Index(buffer, HEADER_SIZE + recordCount * TransactionRecord.SIZE, accountCount);
+        }
+
+        static Segment open(Path path) throws IOException {
+            try (var channel = FileChannel.open(path, READ)) {
+                var size = channel.size();
+                if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                    throw new IOException("Corrupt segment: " + path);
+                }
+
+                var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                var firstIndex = buffer.getInt(8);
+                var recordCount = buffer.getInt(12);
+                var accountCount = buffer.getInt(16);
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || firstIndex < 0 || recordCount <= 0
+                        || accountCount <= 0
+                        || HEADER_SIZE + (long) recordCount * TransactionRecord.SIZE + (long) accountCount * INDEX_ENTRY_SIZE != size) {
+                    throw new IOException("Corrupt segment: " + path);
+                }
+                return new Segment(firstIndex, recordCount, accountCount, buffer);
+            }
+        }
+
+        int transactionId(int index) {
+            return TransactionRecord.transactionId(buffer, offset(index));
+        }
+
+        int accountId(int index) {
+            return TransactionRecord.accountId(buffer, offset(index));
+        }
+
+        int amount(int index) {
+            return TransactionRecord.amount(buffer, offset(index));
+        }
+
+        boolean isDebit(int index) {
+            return TransactionRecord.isDebit(buffer, offset(index));
+        }
+
+        private int offset(int index) {
+            return HEADER_SIZE + (index - firstIndex) * TransactionRecord.SIZE;
+        }
+    }
+
+    private static final class Totals {
+        final Path path;
+        final int coveredSize;
+        final Index index;
+
+        private Totals(Path path, int coveredSize, Index index) {
+            this.path = path;
+            this.coveredSize = coveredSize;
+            this.index = index;
+        }
+
+        static Totals open(Path path) throws IOException {
+            try (var channel = FileChannel.open(path, READ)) {
+                var size = channel.size();
+                if (size < TOTALS_HEADER_SIZE || size > Integer.MAX_VALUE) {
+                    throw new IOException("Corrupt totals: " + path);
+                }
+
+                var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                var coveredSize = buffer.getInt(8);
+                var accountCount = buffer.getInt(12);
+                if (buffer.getInt(0) != TOTALS_MAGIC || buffer.getInt(4) != VERSION || coveredSize <= 0 || accountCount <= 0
+                        || TOTALS_HEADER_SIZE + (long) accountCount * INDEX_ENTRY_SIZE != size) {
+                    throw new IOException("Corrupt totals: " + path);
+                }
+                return new Totals(path, coveredSize, new Index(buffer, TOTALS_HEADER_SIZE, accountCount));
+            }
+        }
+    }
+
+    // (accountId, count, sum) entries sorted by account, as segments and totals files store them
+    private static final class Index {
+        static final Index EMPTY = new Index(null, 0, 0);
+
+        final ByteBuffer buffer;
+        final int offset;
+        final int entries;
+
+        Index(ByteBuffer buffer, int offset, int entries) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.entries = entries;
+        }
+
+        int accountId(int entry) {
+            return buffer.getInt(offset + entry * INDEX_ENTRY_SIZE);
+        }
+
+        int count(int entry) {
+            return buffer.getInt(offset + entry * INDEX_ENTRY_SIZE + 4);
+        }
+
+        long sum(int entry) {
+            return buffer.getLong(offset + entry * INDEX_ENTRY_SIZE + 8);
+        }
+
+        // The account's entry, or -1 when none of its transactions are covered
+        int find(int accountId) {
+            var low = 0;
+            var high = entries - 1;
+            while (low <= high) {
+                var middle = (low + high) >>> 1;
+                var candidate = accountId(middle);
+                if (candidate < accountId) {
+                    low = middle + 1;
+                } else if (candidate > accountId) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -1,82 +1,160 @@
 package domain;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
 
 public class TransactionEngine {
-    ArrayList<Transaction> transactionHistory;
-    int THRESHOLD = 1000;
+    static final int DEFAULT_THRESHOLD = 1000;
+
+    TransactionHistory transactionHistory;
+    final int THRESHOLD = DEFAULT_THRESHOLD;
+    FraudRulePipeline fraudRules;
+    EngineMetrics metrics;
 
     public TransactionEngine() {
-        transactionHistory = new ArrayList<>();
+        this(new ColumnarTransactionStore());
     }
 
-    int getAverageTransactionAmountByAccount(int accountId) {
-        var totalAmount = 0;
-        var count = 0;
-
-        for (Transaction txn : transactionHistory) {
-            if (txn.accountId == accountId) {
-                totalAmount += txn.amount;
-                count++;
-            }
-        }
+    public TransactionEngine(TransactionStore store) {
+        this(store, defaultRules());
+    }
 
-        if (count == 0) {
-            return 0;
-        }
+    public TransactionEngine(TransactionStore store, List<? extends FraudRule> rules) {
+        this(new TransactionHistory(store), rules);
+    }
 
-        return totalAmount / count;
+    public TransactionEngine(TransactionStore store, AccountStatistics accountStatistics, List<? extends FraudRule> rules) {
+        this(new TransactionHistory(store, accountStatistics), rules);
     }
 
-    int getTransactionPatternAboveThreshold(int threshold) {
-        if (transactionHistory.isEmpty()) {
-            return 0;
-        }
+    TransactionEngine(TransactionHistory transactionHistory, List<? extends FraudRule> rules) {
+        this.transactionHistory = transactionHistory;
+        fraudRules = new FraudRulePipeline(rules);
+    }
 
-        var diff = 0;
-        var previous = transactionHistory.getFirst();
+    public static TransactionEngine restoreSnapshot(Path path) throws IOException {
+        return restoreSnapshot(path, defaultRules());
+    }
 
-        for (Transaction txn : transactionHistory) {
-            if (txn.transactionId == previous.transactionId) {
-                continue;
-            }
+    public static TransactionEngine restoreSnapshot(Path path, List<? extends FraudRule> rules) throws IOException {
+        return new TransactionEngine(TransactionEngineSnapshot.read(path), rules);
+    }
 
-            if (txn.amount <= threshold) {
-                continue;
-            }
+    // Throws IOException without writing anything for file-backed stores and for sketch or EWMA statistics;
+    // see TransactionEngineSnapshot
+    public void writeSnapshot(Path path) throws IOException {
+        TransactionEngineSnapshot.write(transactionHistory, path);
+    }
 
-            if (diff == 0) {
-                diff = txn.amount - previous.amount;
-                previous = txn;
-            } else if (diff != txn.amount - previous.amount) {
-                return 0;
-            }
-        }
+    static List<FraudRule> defaultRules() {
+        return List.of(new ExcessiveDebitRule(), new ThresholdPatternRule(DEFAULT_THRESHOLD));
+    }
+
+    int getAverageTransactionAmountByAccount(int accountId) {
+        return transactionHistory.getAverageAmount(accountId);
+    }
 
-        return diff;
+    int getTransactionPatternAboveThreshold(int threshold) {
+        return transactionHistory.getPatternAboveThreshold(threshold);
     }
 
     int detectFraudulentTransaction(Transaction txn) {
         var averageAmount = getAverageTransactionAmountByAccount(txn.accountId);
+        return excessiveDebitScore(txn.amount, txn.isDebit, averageAmount);
+    }
 
-        if (txn.isDebit && txn.amount > 2 * averageAmount) {
-            return txn.amount - 2 * averageAmount;  // Excessive debit, marked as suspicious
+    static int excessiveDebitScore(int amount, boolean isDebit, int averageAmount) {
+        if (isDebit && amount > 2 * averageAmount) {
+            return amount - 2 * averageAmount;  // Excessive debit, marked as suspicious
         }
 
         return 0;
     }
 
     public int addTransactionAndDetectFraud(Transaction txn) {
-        if (transactionHistory.contains(txn)) {
+        return ingest(txn, txn.transactionId, txn.accountId, txn.amount, txn.isDebit);
+    }
+
+    // Allocation-free once the history has capacity: no Transaction, boxing or iterator on the way through
+    public int addTransactionAndDetectFraud(int transactionId, int accountId, int amount, boolean isDebit) {
+        return ingest(null, transactionId, accountId, amount, isDebit);
+    }
+
+    public FraudRulePipeline getFraudRules() {
+        return fraudRules;
+    }
+
+    public EngineMetrics enableMetrics() {
+        if (metrics == null) {
+            metrics = new EngineMetrics(fraudRules);
+        }
+        return metrics;
+    }
+
+    private int ingest(Transaction txn, int transactionId, int accountId, int amount, boolean isDebit) {
+        if (metrics != null) {
+            return ingestInstrumented(metrics, txn, transactionId, accountId, amount, isDebit);
+        }
+
+        if (transactionHistory.contains(transactionId)) {
             return 0;
         }
 
-        var fraudScore = detectFraudulentTransaction(txn);
-        if (fraudScore == 0) {
-            fraudScore = getTransactionPatternAboveThreshold(THRESHOLD);
+        var fraudScore = fraudRules.evaluate(transactionHistory, transactionId, accountId, amount, isDebit);
+        append(txn, transactionId, accountId, amount, isDebit);
+        return fraudScore;
+    }
+
+    private int ingestInstrumented(EngineMetrics metrics, Transaction txn, int transactionId, int accountId, int amount, boolean isDebit) {
+        var start = System.nanoTime();
+        var duplicate = transactionHistory.contains(transactionId);
+        var end = System.nanoTime();
+        metrics.recordStage(EngineMetrics.Stage.DEDUP_CHECK, end - start);
+
+        if (duplicate) {
+            metrics.countBranch(EngineMetrics.Branch.DUPLICATE);
+            return 0;
         }
 
-        transactionHistory.add(txn);
+        start = end;
+        var fraudScore = fraudRules.evaluateTimed(transactionHistory, transactionId, accountId, amount, isDebit);
+        end = System.nanoTime();
+        metrics.recordStage(EngineMetrics.Stage.RULE_EVALUATION, end - start);
+        metrics.countBranch(fraudScore != 0 ? EngineMetrics.Branch.FLAGGED : EngineMetrics.Branch.NOT_SUSPICIOUS);
+
+        start = end;
+        append(txn, transactionId, accountId, amount, isDebit);
+        metrics.recordStage(EngineMetrics.Stage.APPEND, System.nanoTime() - start);
         return fraudScore;
     }
+
+    private void append(Transaction txn, int transactionId, int accountId, int amount, boolean isDebit) {
+        if (txn != null) {
+            transactionHistory.add(txn);  // Keeps the caller's object for stores that hold references
+        } else {
+            transactionHistory.append(transactionId, accountId, amount, isDebit);
+        }
+    }
+
+    public int[] addTransactionsAndDetectFraud(List<Transaction> transactions) {
+        return addTransactionsAndDetectFraud(transactions.toArray(Transaction[]::new));
+    }
+
+    public int[] addTransactionsAndDetectFraud(Stream<Transaction> transactions) {
+        return addTransactionsAndDetectFraud(transactions.toArray(Transaction[]::new));
+    }
+
+    public int[] addTransactionsAndDetectFraud(Transaction[] transactions) {
+        var fraudScores = new int[transactions.length];
+        transactionHistory.ensureCapacity(transactionHistory.size() + transactions.length);
+
+        for (var i = 0; i < transactions.length; i++) {
+            var txn = transactions[i];
+            fraudScores[i] = ingest(txn, txn.transactionId, txn.accountId, txn.amount, txn.isDebit);
+        }
+
+        return fraudScores;
+    }
 }
@@ -0,0 +1,413 @@
+package domain;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+// Binary image of a TransactionHistory: the records as columns, followed by the raw open-addressing tables
+// of the aggregate and id indexes, so restoring is bulk reads with no rehashing and no rescoring.
+//
+// A snapshot restores into the kind of store it was taken from. Only heap stores (columnar, ring and list) with exact
+// AccountAggregates can be snapshotted; mapped and tiered stores are files already, and sketch or EWMA statistics
+// cannot be rebuilt into exact ones, so write() rejects them with an IOException before it touches the disk.
+final class TransactionEngineSnapshot {
+    static final int MAGIC = 0x46534e50;  // "FSNP"
+    static final int VERSION = 5;
+
+    static final int COLUMNAR_STORE = 0;
+    static final int RING_STORE = 1;
+    static final int LIST_STORE = 2;
+    static final int DEFAULT_BUFFER_SIZE = 1 << 22;
+
+    private static final int SCRATCH_SIZE = 1 << 16;
+
+    private TransactionEngineSnapshot() {
+    }
+
+    static void write(TransactionHistory history, Path path) throws IOException {
+        write(history, path, DEFAULT_BUFFER_SIZE);
+    }
+
+    static void write(TransactionHistory history, Path path, int bufferSize) throws IOException {
+        if (!(history.accountStatistics instanceof AccountAggregates aggregates)) {
+            throw new IOException("Snapshots need exact AccountAggregates, not "
+                    + history.accountStatistics.getClass().getSimpleName());
+        }
+        var storeKind = storeKind(history.store);
+
+        var temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (var out = new Writer(temp, bufferSize)) {
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(storeKind);
+            writeStore(out, history.store);
+            writeAggregates(out, aggregates);
+            writeIds(out, history.transactionIds);
+            writePatterns(out, history.patternDetectors);
+            out.force();
+        }
+
+        // Readers never see a half-written snapshot, and the rename itself survives a crash once the directory is synced
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(path.toAbsolutePath().getParent());
+    }
+
+    private static int storeKind(TransactionStore store) throws IOException {
+        if (store instanceof ColumnarTransactionStore) {
+            return COLUMNAR_STORE;
+        }
+        if (store instanceof RingTransactionStore) {
+            return RING_STORE;
+        }
+        if (store instanceof ListTransactionStore) {
+            return LIST_STORE;
+        }
+        throw new IOException("Snapshots cover heap stores only, not " + store.getClass().getSimpleName());
+    }
+
+    private static void syncDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, READ);
+        } catch (IOException e) {
+            return;  // Platforms that cannot open a directory (Windows) make renames durable on their own
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    static TransactionHistory read(Path path) throws IOException {
+        return read(path, DEFAULT_BUFFER_SIZE);
+    }
+
+    static TransactionHistory read(Path path, int bufferSize) throws IOException {
+        try (var in = new Reader(path, bufferSize)) {
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException("Not a transaction engine snapshot: " + path);
+            }
+
+            var store = readStore(in, in.getInt());
+            var history = new TransactionHistory(store, readAggregates(in), readIds(in));
+            for (var threshold : readPatterns(in)) {
+                history.patternDetector(threshold);
+            }
+            return history;
+        }
+    }
+
+    private static void writeStore(Writer out, TransactionStore store) throws IOException {
+        var size = store.size();
+        out.putInt(store.capacity());
+        out.putInt(size);
+
+        if (store instanceof ColumnarTransactionStore columnar) {
+            out.putInts(columnar.transactionIds, size);
+            out.putInts(columnar.accountIds, size);
+            out.putInts(columnar.amounts, size);
+            out.putLongs(columnar.debitBits, wordsFor(size));
+            return;
+        }
+
+        var scratch = new int[Math.min(size, SCRATCH_SIZE)];
+        for (var column = 0; column < 3; column++) {
+            for (var start = 0; start < size; start += scratch.length) {
+                var length = Math.min(scratch.length, size - start);
+                for (var i = 0; i < length; i++) {
+                    scratch[i] = switch (column) {
+                        case 0 -> store.transactionId(start + i);
+                        case 1 -> store.accountId(start + i);
+                        default -> store.amount(start + i);
+                    };
+                }
+                out.putInts(scratch, length);
+            }
+        }
+
+        var word = 0L;
+        for (var i = 0; i < size; i++) {
+            if (store.isDebit(i)) {
+                word |= 1L << i;
+            }
+            if ((i & 63) == 63) {
+                out.putLong(word);
+                word = 0;
+            }
+        }
+        if ((size & 63) != 0) {
+            out.putLong(word);
+        }
+    }
+
+    private static TransactionStore readStore(Reader in, int kind) throws IOException {
+        var capacity = in.getInt();
+        var size = in.getInt();
+        var bounded = kind == RING_STORE;
+        if (kind < COLUMNAR_STORE || kind > LIST_STORE || bounded == (capacity == Integer.MAX_VALUE)
+                || size < 0 || capacity < size) {
+            throw new IOException("Corrupt snapshot store header");
+        }
+
+        var columnar = new ColumnarTransactionStore(size);
+        in.getInts(columnar.transactionIds, size);
+        in.getInts(columnar.accountIds, size);
+        in.getInts(columnar.amounts, size);
+        in.getLongs(columnar.debitBits, wordsFor(size));
+        columnar.size = size;
+
+        if (kind == COLUMNAR_STORE) {
+            return columnar;
+        }
+
+        TransactionStore store = bounded ? new RingTransactionStore(capacity) : new ListTransactionStore();
+        for (var i = 0; i < size; i++) {
+            store.append(columnar.transactionIds[i], columnar.accountIds[i], columnar.amounts[i], columnar.isDebit(i));
+        }
+        return store;
+    }
+
+    private static void writeAggregates(Writer out, AccountAggregates aggregates) throws IOException {
+        var capacity = aggregates.accountIds.length;
+        out.putInt(capacity);
+        out.putInt(aggregates.size);
+        out.putInts(aggregates.accountIds, capacity);
+        out.putLongs(aggregates.sums, capacity);
+        out.putInts(aggregates.counts, capacity);
+        out.putBooleans(aggregates.used, capacity);
+    }
+
+    private static AccountAggregates readAggregates(Reader in) throws IOException {
+        var capacity = readTableCapacity(in);
+        var aggregates = new AccountAggregates();
+        aggregates.size = in.getInt();
+        aggregates.accountIds = new int[capacity];
+        aggregates.sums = new long[capacity];
+        aggregates.counts = new int[capacity];
+        aggregates.used = new boolean[capacity];
+        in.getInts(aggregates.accountIds, capacity);
+        in.getLongs(aggregates.sums, capacity);
+        in.getInts(aggregates.counts, capacity);
+        in.getBooleans(aggregates.used, capacity);
+        return aggregates;
+    }
+
+    private static void writeIds(Writer out, IntHashSet ids) throws IOException {
+        var capacity = ids.keys.length;
+        out.putInt(capacity);
+        out.putInt(ids.size);
+        out.putInts(ids.keys, capacity);
+        out.putBooleans(ids.used, capacity);
+    }
+
+    private static IntHashSet readIds(Reader in) throws IOException {
+        var capacity = readTableCapacity(in);
+        var ids = new IntHashSet();
+        ids.size = in.getInt();
+        ids.keys = new int[capacity];
+        ids.used = new boolean[capacity];
+        in.getInts(ids.keys, capacity);
+        in.getBooleans(ids.used, capacity);
+        return ids;
+    }
+
+    // Only the thresholds; each detector is rebuilt with one pass over the restored window
+    private static void writePatterns(Writer out, WindowedPatternDetector[] detectors) throws IOException {
+        out.putInt(detectors.length);
+        for (var detector : detectors) {
+            out.putInt(detector.threshold);
+        }
+    }
+
+    private static int[] readPatterns(Reader in) throws IOException {
+        var count = in.getInt();
+        if (count < 0) {
+            throw new IOException("Corrupt snapshot pattern section");
+        }
+
+        var thresholds = new int[count];
+        in.getInts(thresholds, count);
+        return thresholds;
+    }
+
+    private static int readTableCapacity(Reader in) throws IOException {
+        var capacity = in.getInt();
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IOException("Corrupt snapshot index table");
+        }
+        return capacity;
+    }
+
+    private static int wordsFor(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        Writer(Path path, int bufferSize) throws IOException {
+            channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING);
+            buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, Long.BYTES));
+        }
+
+        void putInt(int value) throws IOException {
+            ensureRemaining(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensureRemaining(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putInts(int[] values, int length) throws IOException {
+            var offset = 0;
+            while (offset < length) {
+                ensureRemaining(Integer.BYTES);
+                var count = Math.min(length - offset, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                offset += count;
+            }
+        }
+
+        void putLongs(long[] values, int length) throws IOException {
+            var offset = 0;
+            while (offset < length) {
+                ensureRemaining(Long.BYTES);
+                var count = Math.min(length - offset, buffer.remaining() / Long.BYTES);
+                buffer.asLongBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Long.BYTES);
+                offset += count;
+            }
+        }
+
+        // Packed 64 to a long like the debit column, then written in bulk
+        void putBooleans(boolean[] values, int length) throws IOException {
+            var words = new long[Math.min(wordsFor(length), SCRATCH_SIZE)];
+            for (var start = 0; start < length; start += words.length << 6) {
+                var end = Math.min(length, start + (words.length << 6));
+                Arrays.fill(words, 0);
+                for (var i = start; i < end; i++) {
+                    if (values[i]) {
+                        words[(i - start) >>> 6] |= 1L << i;
+                    }
+                }
+                putLongs(words, wordsFor(end - start));
+            }
+        }
+
+        void force() throws IOException {
+            flush();
+            channel.force(true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void ensureRemaining(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        Reader(Path path, int bufferSize) throws IOException {
+            channel = FileChannel.open(path, READ);
+            buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, Long.BYTES));
+            buffer.flip();
+        }
+
+        int getInt() throws IOException {
+            ensureAvailable(Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        long getLong() throws IOException {
+            ensureAvailable(Long.BYTES);
+            return buffer.getLong();
+        }
+
+        void getInts(int[] values, int length) throws IOException {
+            var offset = 0;
+            while (offset < length) {
+                ensureAvailable(Integer.BYTES);
+                var count = Math.min(length - offset, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().get(values, offset, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                offset += count;
+            }
+        }
+
+        void getLongs(long[] values, int length) throws IOException {
+            var offset = 0;
+            while (offset < length) {
+                ensureAvailable(Long.BYTES);
+                var count = Math.min(length - offset, buffer.remaining() / Long.BYTES);
+                buffer.asLongBuffer().get(values, offset, count);
+                buffer.position(buffer.position() + count * Long.BYTES);
+                offset += count;
+            }
+        }
+
+        void getBooleans(boolean[] values, int length) throws IOException {
+            var words = new long[Math.min(wordsFor(length), SCRATCH_SIZE)];
+            for (var start = 0; start < length; start += words.length << 6) {
+                var end = Math.min(length, start + (words.length << 6));
+                getLongs(words, wordsFor(end - start));
+                for (var i = start; i < end; i++) {
+                    values[i] = (words[(i - start) >>> 6] & (1L << i)) != 0;
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void ensureAvailable(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Truncated snapshot");
+                }
+            }
+            buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package domain;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class TransactionHistory implements Iterable<Transaction> {
+    final TransactionStore store;
+    final AccountStatistics accountStatistics;
+    final IntHashSet transactionIds;
+    // One detector per threshold asked for so far, all fed on every append
+    WindowedPatternDetector[] patternDetectors = new WindowedPatternDetector[0];
+
+    public TransactionHistory() {
+        this(new ColumnarTransactionStore());
+    }
+
+    public TransactionHistory(TransactionStore store) {
+        this(store, new AccountAggregates());
+    }
+
+    public TransactionHistory(TransactionStore store, AccountStatistics accountStatistics) {
+        this(store, accountStatistics, new IntHashSet(store.size()));
+
+        for (var i = 0; i < store.size(); i++) {
+            accountStatistics.add(store.accountId(i), store.amount(i));
+            transactionIds.add(store.transactionId(i));
+        }
+    }
+
+    TransactionHistory(TransactionStore store, AccountStatistics accountStatistics, IntHashSet transactionIds) {
+        this.store = store;
+        this.accountStatistics = accountStatistics;
+        this.transactionIds = transactionIds;
+    }
+
+    public boolean add(Transaction txn) {
+        evictIfFull();
+        store.add(txn);
+        index(txn.transactionId, txn.accountId, txn.amount);
+        return true;
+    }
+
+    void append(int transactionId, int accountId, int amount, boolean isDebit) {
+        evictIfFull();
+        store.append(transactionId, accountId, amount, isDebit);
+        index(transactionId, accountId, amount);
+    }
+
+    private void evictIfFull() {
+        if (store.size() < store.capacity()) {
+            return;
+        }
+
+        var amount = store.amount(0);
+        accountStatistics.remove(store.accountId(0), amount);
+        transactionIds.remove(store.transactionId(0));
+        for (var detector : patternDetectors) {
+            detector.evict(amount);
+        }
+        store.removeFirst();
+    }
+
+    private void index(int transactionId, int accountId, int amount) {
+        accountStatistics.add(accountId, amount);
+        transactionIds.add(transactionId);
+        for (var detector : patternDetectors) {
+            detector.append(amount);
+        }
+    }
+
+    boolean contains(int transactionId) {
+        return transactionIds.contains(transactionId);
+    }
+
+    public boolean contains(Transaction txn) {
+        return transactionIds.contains(txn.transactionId);
+    }
+
+    public int capacity() {
+        return store.capacity();
+    }
+
+    public boolean isEmpty() {
+        return store.size() == 0;
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    public Transaction getFirst() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return store.get(0);
+    }
+
+    // A bounded store never holds more than its window, so neither do the ids
+    public void ensureCapacity(int capacity) {
+        capacity = Math.min(capacity, store.capacity());
+        store.ensureCapacity(capacity);
+        transactionIds.ensureCapacity(capacity);
+    }
+
+    public int getAverageAmount(int accountId) {
+        return accountStatistics.average(accountId);
+    }
+
+    public int getPatternAboveThreshold(int threshold) {
+        return patternDetector(threshold).pattern(store);
+    }
+
+    // A threshold seen for the first time costs one scan; from then on it is tracked incrementally
+    WindowedPatternDetector patternDetector(int threshold) {
+        for (var detector : patternDetectors) {
+            if (detector.threshold == threshold) {
+                return detector;
+            }
+        }
+
+        var detector = new WindowedPatternDetector(threshold, store.capacity() != Integer.MAX_VALUE);
+        detector.scan(store);
+        patternDetectors = Arrays.copyOf(patternDetectors, patternDetectors.length + 1);
+        patternDetectors[patternDetectors.length - 1] = detector;
+        return detector;
+    }
+
+    @Override
+    public Iterator<Transaction> iterator() {
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < store.size();
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return store.get(index++);
+            }
+        };
+    }
+}
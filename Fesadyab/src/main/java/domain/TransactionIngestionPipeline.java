@@ -0,0 +1,186 @@
+package domain;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public class TransactionIngestionPipeline implements AutoCloseable {
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = 1_000;
+
+    private final TransactionEngine engine;
+    private final ScoreHandler handler;
+    private final int bufferSize;
+    private final int mask;
+    private final int indexShift;
+
+    // Pre-allocated slots, reused on every lap around the ring
+    private final int[] transactionIds;
+    private final int[] accountIds;
+    private final int[] amounts;
+    private final boolean[] debits;
+    private final int[] fraudScores;
+    private final AtomicIntegerArray availableLaps;
+
+    private final AtomicLong claimedSequence = new AtomicLong(-1);
+    private final AtomicLong scoredSequence = new AtomicLong(-1);
+    private final AtomicLong publishedSequence = new AtomicLong(-1);
+    private final Thread scoringThread;
+    private final Thread publishingThread;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    public TransactionIngestionPipeline(TransactionEngine engine, int bufferSize, ScoreHandler handler) {
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of two");
+        }
+
+        this.engine = engine;
+        this.handler = handler;
+        this.bufferSize = bufferSize;
+        mask = bufferSize - 1;
+        indexShift = Integer.numberOfTrailingZeros(bufferSize);
+
+        transactionIds = new int[bufferSize];
+        accountIds = new int[bufferSize];
+        amounts = new int[bufferSize];
+        debits = new boolean[bufferSize];
+        fraudScores = new int[bufferSize];
+        availableLaps = new AtomicIntegerArray(bufferSize);
+        for (var i = 0; i < bufferSize; i++) {
+            availableLaps.set(i, -1);
+        }
+
+        scoringThread = Thread.ofPlatform().name("fraud-scoring").unstarted(this::runScoring);
+        publishingThread = Thread.ofPlatform().name("fraud-score-publishing").unstarted(this::runPublishing);
+    }
+
+    public TransactionIngestionPipeline start() {
+        scoringThread.start();
+        publishingThread.start();
+        return this;
+    }
+
+    public long publish(Transaction txn) {
+        return publish(txn.transactionId, txn.accountId, txn.amount, txn.isDebit);
+    }
+
+    public long publish(int transactionId, int accountId, int amount, boolean isDebit) {
+        if (closed) {
+            throw new IllegalStateException("Pipeline is closed");
+        }
+        checkNotFailed();
+
+        var sequence = claimedSequence.incrementAndGet();
+        var idle = 0;
+        while (sequence - bufferSize > publishedSequence.get()) {
+            checkNotFailed();  // A dead stage will never free this slot
+            idle = idle(idle);  // Ring is full until the publishing stage frees this slot
+        }
+
+        var index = (int) sequence & mask;
+        transactionIds[index] = transactionId;
+        accountIds[index] = accountId;
+        amounts[index] = amount;
+        debits[index] = isDebit;
+        availableLaps.lazySet(index, (int) (sequence >>> indexShift));
+        return sequence;
+    }
+
+    // Producers must have stopped publishing; every claimed slot is scored and published before this returns.
+    // Throws if a stage died, since the slots after the failure were never scored.
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            scoringThread.join();
+            publishingThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkNotFailed();
+    }
+
+    // What stopped a stage, or null while both are running
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    private void checkNotFailed() {
+        var cause = failure;
+        if (cause != null) {
+            throw new IllegalStateException("Pipeline stage failed", cause);
+        }
+    }
+
+    private void runScoring() {
+        try {
+            scoreLoop();
+        } catch (Throwable e) {
+            failure = e;
+        }
+    }
+
+    private void runPublishing() {
+        try {
+            publishLoop();
+        } catch (Throwable e) {
+            failure = e;
+        }
+    }
+
+    private void scoreLoop() {
+        var next = 0L;
+        var idle = 0;
+
+        while (failure == null) {
+            var index = (int) next & mask;
+            if (availableLaps.get(index) == (int) (next >>> indexShift)) {
+                fraudScores[index] = engine.addTransactionAndDetectFraud(
+                        transactionIds[index], accountIds[index], amounts[index], debits[index]);
+                scoredSequence.lazySet(next);
+                next++;
+                idle = 0;
+            } else if (closed && next > claimedSequence.get()) {
+                return;
+            } else {
+                idle = idle(idle);
+            }
+        }
+    }
+
+    private void publishLoop() {
+        var next = 0L;
+        var idle = 0;
+
+        while (failure == null) {
+            var scored = scoredSequence.get();
+            if (next <= scored) {
+                for (; next <= scored; next++) {
+                    var index = (int) next & mask;
+                    handler.onScore(next, transactionIds[index], fraudScores[index]);
+                }
+                publishedSequence.lazySet(scored);
+                idle = 0;
+            } else if (closed && next > claimedSequence.get()) {
+                return;
+            } else {
+                idle = idle(idle);
+            }
+        }
+    }
+
+    private static int idle(int counter) {
+        if (counter < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return counter + 1;
+    }
+
+    @FunctionalInterface
+    public interface ScoreHandler {
+        void onScore(long sequence, int transactionId, int fraudScore);
+    }
+}
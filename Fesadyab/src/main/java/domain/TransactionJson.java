@@ -0,0 +1,234 @@
+package domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Just enough JSON for the HTTP endpoint: flat transaction objects and arrays of them. Unknown fields are skipped.
+// Accepts "isDebit" as well as "debit", the bean property name Lombok's isDebit() getter implies.
+final class TransactionJson {
+    static final int MAX_DEPTH = 64;  // Of skipped values, which recurse; deeper input is rejected, not a stack overflow
+
+    private final String json;
+    private int position;
+
+    private TransactionJson(String json) {
+        this.json = json;
+    }
+
+    static Transaction parseTransaction(String json) {
+        var parser = new TransactionJson(json);
+        var txn = parser.readTransaction();
+        parser.expectEnd();
+        return txn;
+    }
+
+    static List<Transaction> parseTransactions(String json) {
+        var parser = new TransactionJson(json);
+        var transactions = new ArrayList<Transaction>();
+        parser.expect('[');
+        if (!parser.consume(']')) {
+            do {
+                transactions.add(parser.readTransaction());
+            } while (parser.consume(','));
+            parser.expect(']');
+        }
+        parser.expectEnd();
+        return transactions;
+    }
+
+    static void appendScore(StringBuilder out, int transactionId, int fraudScore) {
+        out.append("{\"transactionId\":").append(transactionId).append(",\"fraudScore\":").append(fraudScore).append('}');
+    }
+
+    static String error(String message) {
+        var out = new StringBuilder("{\"error\":\"");
+        for (var i = 0; i < message.length(); i++) {
+            var c = message.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append("\"}").toString();
+    }
+
+    private Transaction readTransaction() {
+        var txn = new Transaction();
+        var seen = 0;
+        expect('{');
+        if (!consume('}')) {
+            do {
+                var name = readString();
+                expect(':');
+                switch (name) {
+                    case "transactionId" -> {
+                        txn.transactionId = readInt();
+                        seen |= 1;
+                    }
+                    case "accountId" -> {
+                        txn.accountId = readInt();
+                        seen |= 2;
+                    }
+                    case "amount" -> {
+                        txn.amount = readInt();
+                        seen |= 4;
+                    }
+                    case "isDebit", "debit" -> {
+                        txn.isDebit = readBoolean();
+                        seen |= 8;
+                    }
+                    default -> skipValue(1);
+                }
+            } while (consume(','));
+            expect('}');
+        }
+
+        if (seen != 15) {
+            throw malformed("transaction needs transactionId, accountId, amount and isDebit");
+        }
+        return txn;
+    }
+
+    private int readInt() {
+        skipWhitespace();
+        var start = position;
+        if (position < json.length() && json.charAt(position) == '-') {
+            position++;
+        }
+        while (position < json.length() && json.charAt(position) >= '0' && json.charAt(position) <= '9') {
+            position++;
+        }
+        try {
+            return Integer.parseInt(json, start, position, 10);
+        } catch (NumberFormatException e) {
+            throw malformed("expected a 32-bit integer");
+        }
+    }
+
+    private boolean readBoolean() {
+        skipWhitespace();
+        if (json.startsWith("true", position)) {
+            position += 4;
+            return true;
+        }
+        if (json.startsWith("false", position)) {
+            position += 5;
+            return false;
+        }
+        throw malformed("expected true or false");
+    }
+
+    private String readString() {
+        expect('"');
+        var out = new StringBuilder();
+        while (position < json.length()) {
+            var c = json.charAt(position++);
+            if (c == '"') {
+                return out.toString();
+            }
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            if (position >= json.length()) {
+                break;
+            }
+            var escaped = json.charAt(position++);
+            switch (escaped) {
+                case 'b' -> out.append('\b');
+                case 'f' -> out.append('\f');
+                case 'n' -> out.append('\n');
+                case 'r' -> out.append('\r');
+                case 't' -> out.append('\t');
+                case 'u' -> {
+                    if (position + 4 > json.length()) {
+                        throw malformed("truncated unicode escape");
+                    }
+                    out.append((char) Integer.parseInt(json, position, position + 4, 16));
+                    position += 4;
+                }
+                default -> out.append(escaped);
+            }
+        }
+        throw malformed("unterminated string");
+    }
+
+    private void skipValue(int depth) {
+        skipWhitespace();
+        if (position >= json.length()) {
+            throw malformed("expected a value");
+        }
+        if (depth > MAX_DEPTH) {
+            throw malformed("nested deeper than " + MAX_DEPTH + " levels");
+        }
+
+        switch (json.charAt(position)) {
+            case '"' -> readString();
+            case '{' -> {
+                position++;
+                if (!consume('}')) {
+                    do {
+                        readString();
+                        expect(':');
+                        skipValue(depth + 1);
+                    } while (consume(','));
+                    expect('}');
+                }
+            }
+            case '[' -> {
+                position++;
+                if (!consume(']')) {
+                    do {
+                        skipValue(depth + 1);
+                    } while (consume(','));
+                    expect(']');
+                }
+            }
+            default -> {
+                // Number, true, false or null
+                var start = position;
+                while (position < json.length() && "{}[],: \t\r\n".indexOf(json.charAt(position)) < 0) {
+                    position++;
+                }
+                if (position == start) {
+                    throw malformed("expected a value");
+                }
+            }
+        }
+    }
+
+    private boolean consume(char c) {
+        skipWhitespace();
+        if (position < json.length() && json.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!consume(c)) {
+            throw malformed("expected '" + c + "'");
+        }
+    }
+
+    private void expectEnd() {
+        skipWhitespace();
+        if (position != json.length()) {
+            throw malformed("unexpected trailing content");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException malformed(String message) {
+        return new IllegalArgumentException("Malformed JSON at position " + position + ": " + message);
+    }
+}
@@ -0,0 +1,46 @@
+package domain;
+
+import java.nio.ByteBuffer;
+
+// Fixed-width big-endian wire layout of a transaction: transactionId, accountId, amount, flags (bit 0 = debit).
+// Shared by the binary feed decoder, the mapped store and the write-ahead log.
+public final class TransactionRecord {
+    public static final int SIZE = 16;
+    public static final int TRANSACTION_ID_OFFSET = 0;
+    public static final int ACCOUNT_ID_OFFSET = 4;
+    public static final int AMOUNT_OFFSET = 8;
+    public static final int FLAGS_OFFSET = 12;
+    public static final int DEBIT_FLAG = 1;
+
+    private TransactionRecord() {
+    }
+
+    public static void write(ByteBuffer buffer, int offset, int transactionId, int accountId, int amount, boolean isDebit) {
+        buffer.putInt(offset + TRANSACTION_ID_OFFSET, transactionId);
+        buffer.putInt(offset + ACCOUNT_ID_OFFSET, accountId);
+        buffer.putInt(offset + AMOUNT_OFFSET, amount);
+        buffer.putInt(offset + FLAGS_OFFSET, isDebit ? DEBIT_FLAG : 0);
+    }
+
+    public static void write(ByteBuffer buffer, Transaction txn) {
+        var offset = buffer.position();
+        write(buffer, offset, txn.transactionId, txn.accountId, txn.amount, txn.isDebit);
+        buffer.position(offset + SIZE);
+    }
+
+    public static int transactionId(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + TRANSACTION_ID_OFFSET);
+    }
+
+    public static int accountId(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + ACCOUNT_ID_OFFSET);
+    }
+
+    public static int amount(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + AMOUNT_OFFSET);
+    }
+
+    public static boolean isDebit(ByteBuffer buffer, int offset) {
+        return (buffer.getInt(offset + FLAGS_OFFSET) & DEBIT_FLAG) != 0;
+    }
+}
@@ -0,0 +1,59 @@
+package domain;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+// Scores TransactionRecord frames straight out of a heap or direct buffer, without creating Transaction objects.
+public class TransactionRecordDecoder {
+    private final TransactionEngine engine;
+
+    public TransactionRecordDecoder(TransactionEngine engine) {
+        this.engine = Objects.requireNonNull(engine);
+    }
+
+    // Consumes every complete record between position and limit; a trailing partial record is left for the next frame
+    public int decode(ByteBuffer buffer, ScoreHandler handler) {
+        var order = buffer.order();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        try {
+            var offset = buffer.position();
+            var records = (buffer.limit() - offset) / TransactionRecord.SIZE;
+            for (var i = 0; i < records; i++, offset += TransactionRecord.SIZE) {
+                handler.onScore(TransactionRecord.transactionId(buffer, offset), score(buffer, offset));
+            }
+            buffer.position(offset);
+            return records;
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    // Same as above, but stops once fraudScores is full
+    public int decode(ByteBuffer buffer, int[] fraudScores) {
+        var order = buffer.order();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        try {
+            var offset = buffer.position();
+            var records = Math.min((buffer.limit() - offset) / TransactionRecord.SIZE, fraudScores.length);
+            for (var i = 0; i < records; i++, offset += TransactionRecord.SIZE) {
+                fraudScores[i] = score(buffer, offset);
+            }
+            buffer.position(offset);
+            return records;
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    private int score(ByteBuffer buffer, int offset) {
+        return engine.addTransactionAndDetectFraud(TransactionRecord.transactionId(buffer, offset),
+                TransactionRecord.accountId(buffer, offset),
+                TransactionRecord.amount(buffer, offset),
+                TransactionRecord.isDebit(buffer, offset));
+    }
+
+    public interface ScoreHandler {
+        void onScore(int transactionId, int fraudScore);
+    }
+}
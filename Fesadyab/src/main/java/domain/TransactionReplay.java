@@ -0,0 +1,292 @@
+package domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+// Offline backtest driver: memory-maps a historical transaction file, feeds every record through a TransactionEngine
+// and writes "transactionId,fraudScore" lines. Neither input format allocates per record.
+public class TransactionReplay {
+    static final int DEFAULT_WINDOW_SIZE = 1 << 26;  // 64 MiB per mapping, a multiple of TransactionRecord.SIZE
+    static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    public enum Format {
+        // transactionId,accountId,amount,isDebit per line; an optional header line; isDebit is true/false or 1/0
+        CSV,
+        // Back-to-back TransactionRecord entries with no header
+        BINARY;
+
+        static Format of(Path path) {
+            return path.toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : BINARY;
+        }
+    }
+
+    private TransactionReplay() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: TransactionReplay <input> <output> [csv|binary]");
+            System.exit(2);
+        }
+
+        var input = Path.of(args[0]);
+        var format = args.length == 3 ? Format.valueOf(args[2].toUpperCase(Locale.ROOT)) : Format.of(input);
+        var start = System.nanoTime();
+        var records = replay(input, format, new TransactionEngine(), Path.of(args[1]));
+        var elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("Replayed %d transactions in %d ms%n", records, elapsedMillis);
+    }
+
+    public static long replay(Path input, Format format, TransactionEngine engine, Path output) throws IOException {
+        return replay(input, format, engine, output, DEFAULT_WINDOW_SIZE);
+    }
+
+    static long replay(Path input, Format format, TransactionEngine engine, Path output, int windowSize) throws IOException {
+        if (windowSize < TransactionRecord.SIZE || windowSize % TransactionRecord.SIZE != 0) {
+            throw new IllegalArgumentException("windowSize must be a positive multiple of " + TransactionRecord.SIZE);
+        }
+
+        try (var channel = FileChannel.open(input, READ);
+             var scores = new ScoreWriter(output)) {
+            return switch (format) {
+                case CSV -> replayCsv(channel, engine, scores, windowSize);
+                case BINARY -> replayBinary(channel, engine, scores, windowSize);
+            };
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long replayBinary(FileChannel channel, TransactionEngine engine, ScoreWriter scores, int windowSize) throws IOException {
+        var size = channel.size();
+        if (size % TransactionRecord.SIZE != 0) {
+            throw new IOException("Truncated binary transaction file: " + size + " bytes");
+        }
+
+        var decoder = new TransactionRecordDecoder(engine);
+        var records = 0L;
+        for (var position = 0L; position < size; position += windowSize) {
+            var window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+            records += decoder.decode(window, scores);
+        }
+        return records;
+    }
+
+    private static long replayCsv(FileChannel channel, TransactionEngine engine, ScoreWriter scores, int windowSize) throws IOException {
+        var size = channel.size();
+        var reader = new CsvReader();
+        var records = 0L;
+        var position = 0L;
+
+        while (position < size) {
+            var length = (int) Math.min(windowSize, size - position);
+            var isLast = position + length == size;
+            reader.reset(channel.map(FileChannel.MapMode.READ_ONLY, position, length), position);
+
+            var lineStart = 0;
+            while (lineStart < length) {
+                var lineEnd = reader.indexOfNewline(lineStart);
+                if (lineEnd < 0) {
+                    if (!isLast) {
+                        break;  // Finish this line in the next window
+                    }
+                    lineEnd = length;
+                }
+
+                if (reader.startLine(lineStart, lineEnd)) {
+                    var transactionId = reader.nextInt();
+                    reader.expectComma();
+                    var accountId = reader.nextInt();
+                    reader.expectComma();
+                    var amount = reader.nextInt();
+                    reader.expectComma();
+                    var isDebit = reader.nextBoolean();
+
+                    scores.onScore(transactionId, engine.addTransactionAndDetectFraud(transactionId, accountId, amount, isDebit));
+                    records++;
+                }
+                lineStart = lineEnd + 1;
+            }
+
+            if (lineStart == 0) {
+                throw new IOException("CSV line at byte " + position + " is longer than the mapping window");
+            }
+            position += Math.min(lineStart, length);
+        }
+        return records;
+    }
+
+    private static final class CsvReader {
+        private MappedByteBuffer window;
+        private long windowOffset;
+        private int position;
+        private int limit;
+
+        void reset(MappedByteBuffer window, long windowOffset) {
+            this.window = window;
+            this.windowOffset = windowOffset;
+        }
+
+        int indexOfNewline(int from) {
+            var end = window.limit();
+            for (var i = from; i < end; i++) {
+                if (window.get(i) == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        // False for blank lines and for a header line at the start of the file
+        boolean startLine(int lineStart, int lineEnd) {
+            position = lineStart;
+            limit = lineEnd;
+            if (limit > position && window.get(limit - 1) == '\r') {
+                limit--;
+            }
+            if (position == limit) {
+                return false;
+            }
+
+            var first = window.get(position);
+            var isNumeric = first == '-' || (first >= '0' && first <= '9');
+            return isNumeric || windowOffset + lineStart != 0;
+        }
+
+        int nextInt() throws IOException {
+            var negative = position < limit && window.get(position) == '-';
+            if (negative) {
+                position++;
+            }
+
+            var start = position;
+            var value = 0L;
+            while (position < limit) {
+                var b = window.get(position);
+                if (b < '0' || b > '9') {
+                    break;
+                }
+                value = value * 10 + (b - '0');
+                if (value > 1L + Integer.MAX_VALUE) {
+                    throw malformed();
+                }
+                position++;
+            }
+
+            if (position == start) {
+                throw malformed();
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw malformed();
+            }
+            return (int) value;
+        }
+
+        void expectComma() throws IOException {
+            if (position >= limit || window.get(position) != ',') {
+                throw malformed();
+            }
+            position++;
+        }
+
+        boolean nextBoolean() throws IOException {
+            if (matches("1") || matches("true")) {
+                return true;
+            }
+            if (matches("0") || matches("false")) {
+                return false;
+            }
+            throw malformed();
+        }
+
+        private boolean matches(String token) {
+            if (limit - position != token.length()) {
+                return false;
+            }
+            for (var i = 0; i < token.length(); i++) {
+                if ((window.get(position + i) | 0x20) != token.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private IOException malformed() {
+            return new IOException("Malformed CSV record near byte " + (windowOffset + position));
+        }
+    }
+
+    // Formats scores straight into a direct buffer; UncheckedIOException is unwrapped by replay()
+    private static final class ScoreWriter implements TransactionRecordDecoder.ScoreHandler, Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+        private final byte[] digits = new byte[11];
+
+        ScoreWriter(Path path) throws IOException {
+            channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING);
+        }
+
+        @Override
+        public void onScore(int transactionId, int fraudScore) {
+            if (buffer.remaining() < 2 * digits.length + 2) {
+                flush();
+            }
+            putInt(transactionId);
+            buffer.put((byte) ',');
+            putInt(fraudScore);
+            buffer.put((byte) '\n');
+        }
+
+        private void putInt(int value) {
+            var remaining = (long) value;
+            if (remaining < 0) {
+                buffer.put((byte) '-');
+                remaining = -remaining;
+            }
+
+            var count = 0;
+            do {
+                digits[count++] = (byte) ('0' + remaining % 10);
+                remaining /= 10;
+            } while (remaining > 0);
+            while (count > 0) {
+                buffer.put(digits[--count]);
+            }
+        }
+
+        private void flush() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
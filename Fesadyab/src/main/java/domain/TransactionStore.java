@@ -0,0 +1,39 @@
+package domain;
+
+public interface TransactionStore {
+    void append(int transactionId, int accountId, int amount, boolean isDebit);
+
+    int size();
+
+    int transactionId(int index);
+
+    int accountId(int index);
+
+    int amount(int index);
+
+    boolean isDebit(int index);
+
+    default void add(Transaction txn) {
+        append(txn.transactionId, txn.accountId, txn.amount, txn.isDebit);
+    }
+
+    default Transaction get(int index) {
+        var txn = new Transaction();
+        txn.transactionId = transactionId(index);
+        txn.accountId = accountId(index);
+        txn.amount = amount(index);
+        txn.isDebit = isDebit(index);
+        return txn;
+    }
+
+    default void ensureCapacity(int capacity) {
+    }
+
+    default int capacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    default void removeFirst() {
+        throw new UnsupportedOperationException("Store does not support eviction");
+    }
+}
@@ -0,0 +1,114 @@
+package domain;
+
+// The threshold pattern of a window that drops its oldest transaction as new ones arrive.
+//
+// ThresholdPatternDetector folds each transaction into a diff and a broken flag, and that fold cannot be undone:
+// once the anchor (the oldest transaction) leaves, nothing in its state describes the new window. This detector
+// keeps state that can be undone instead: the above-threshold amounts in window order, run-length encoded. Append
+// grows or extends the last run, eviction shrinks the first one, and both are O(1). The pattern reads off the first
+// runs, because the sequences ThresholdPatternDetector accepts without breaking are exactly
+//
+//   anchor, more of the anchor's amount, one anchor + diff, any number of anchor + 2 * diff
+//
+// Eviction is the exact inverse of append as long as the window holds each transaction id once, which the engine's
+// id index guarantees. That is also why ThresholdPatternDetector's skip of a repeated id has no counterpart here.
+class WindowedPatternDetector {
+    // Without eviction the runs only grow, and past four the pattern is broken for good
+    private static final int UNBOUNDED_RUNS = 4;
+
+    final int threshold;
+    private final boolean evicting;
+    private int[] amounts = new int[UNBOUNDED_RUNS];
+    private int[] counts = new int[UNBOUNDED_RUNS];
+    private int head;
+    private int runs;
+
+    WindowedPatternDetector(int threshold, boolean evicting) {
+        this.threshold = threshold;
+        this.evicting = evicting;
+    }
+
+    void append(int amount) {
+        if (amount <= threshold) {
+            return;
+        }
+
+        if (runs > 0) {
+            var last = slot(runs - 1);
+            if (amounts[last] == amount) {
+                counts[last]++;
+                return;
+            }
+        }
+        if (!evicting && runs == UNBOUNDED_RUNS) {
+            return;
+        }
+
+        if (runs == amounts.length) {
+            grow();
+        }
+        var slot = slot(runs++);
+        amounts[slot] = amount;
+        counts[slot] = 1;
+    }
+
+    // The amount of the oldest transaction, as it leaves the window
+    void evict(int amount) {
+        if (amount <= threshold) {
+            return;
+        }
+
+        if (--counts[head] == 0) {
+            head = slot(1);
+            runs--;
+        }
+    }
+
+    void scan(TransactionStore store) {
+        var size = store.size();
+        for (var i = 0; i < size; i++) {
+            append(store.amount(i));
+        }
+    }
+
+    // The store is the window this detector has seen; its first transaction is the anchor
+    int pattern(TransactionStore store) {
+        if (store.size() == 0) {
+            return 0;
+        }
+
+        // An anchor above the threshold heads the first run; either way the runs after the anchor's own follow
+        var anchor = store.amount(0);
+        var first = anchor > threshold ? 1 : 0;
+        var rest = runs - first;
+        if (rest == 0 || rest > 2) {
+            return 0;
+        }
+
+        var middle = slot(first);
+        if (counts[middle] != 1) {
+            return 0;
+        }
+        var diff = amounts[middle] - anchor;
+        if (rest == 2 && amounts[slot(first + 1)] - amounts[middle] != diff) {
+            return 0;
+        }
+        return diff;
+    }
+
+    private int slot(int index) {
+        return (head + index) & (amounts.length - 1);
+    }
+
+    private void grow() {
+        var grownAmounts = new int[amounts.length << 1];
+        var grownCounts = new int[amounts.length << 1];
+        for (var i = 0; i < runs; i++) {
+            grownAmounts[i] = amounts[slot(i)];
+            grownCounts[i] = counts[slot(i)];
+        }
+        amounts = grownAmounts;
+        counts = grownCounts;
+        head = 0;
+    }
+}
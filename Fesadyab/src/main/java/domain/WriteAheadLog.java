@@ -0,0 +1,229 @@
+package domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+// Append-only log of fixed-width transaction records with group commit: appends only buffer, and whichever
+// caller of sync() finds no flush in progress writes and fsyncs everything buffered so far on behalf of all waiters.
+// Each record is a TransactionRecord followed by the CRC32C of its bytes.
+//
+// A crash can only tear the batch that was being flushed, which is the tail of the file: a partial last record, or
+// whole records whose checksums fail with no valid record after them. That tail was never acknowledged and is dropped.
+// A failing record followed by a valid one cannot come from a crash, so opening or replaying such a log throws.
+class WriteAheadLog implements Closeable {
+    static final int RECORD_SIZE = TransactionRecord.SIZE + Integer.BYTES;
+    static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private final CRC32C checksum = new CRC32C();
+    private ByteBuffer pending;
+    private ByteBuffer spare;
+    private long appendedSequence;
+    private long durableSequence;
+    private boolean flushing;
+    private long flushCount;
+    private IOException failure;
+
+    WriteAheadLog(Path path) throws IOException {
+        this(path, DEFAULT_BUFFER_SIZE);
+    }
+
+    WriteAheadLog(Path path, int bufferSize) throws IOException {
+        var capacity = Math.max(bufferSize / RECORD_SIZE, 1) * RECORD_SIZE;
+        pending = ByteBuffer.allocateDirect(capacity);
+        spare = ByteBuffer.allocateDirect(capacity);
+        channel = FileChannel.open(path, CREATE, READ, WRITE);
+
+        long records;
+        try {
+            records = scan(channel, (transactionId, accountId, amount, isDebit) -> {
+            });
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        channel.truncate(records * RECORD_SIZE);
+        channel.position(records * RECORD_SIZE);
+        appendedSequence = records;
+        durableSequence = records;
+    }
+
+    long append(int transactionId, int accountId, int amount, boolean isDebit) throws IOException {
+        lock.lock();
+        try {
+            while (pending.remaining() < RECORD_SIZE) {
+                checkNotFailed();
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                } else {
+                    flushLocked();
+                }
+            }
+
+            checkNotFailed();
+            var offset = pending.position();
+            TransactionRecord.write(pending, offset, transactionId, accountId, amount, isDebit);
+            pending.putInt(offset + TransactionRecord.SIZE, checksum(checksum, pending, offset));
+            pending.position(offset + RECORD_SIZE);
+            return ++appendedSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void sync(long sequence) throws IOException {
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                checkNotFailed();
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                } else {
+                    flushLocked();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getFlushCount() {
+        lock.lock();
+        try {
+            return flushCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        long lastSequence;
+        lock.lock();
+        try {
+            lastSequence = appendedSequence;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            sync(lastSequence);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void checkNotFailed() throws IOException {
+        if (failure != null) {
+            throw new IOException("Write-ahead log failed earlier; buffered records may be lost", failure);
+        }
+    }
+
+    // Called with the lock held; releases it for the write and fsync so other callers keep appending
+    private void flushLocked() throws IOException {
+        flushing = true;
+        var batch = pending;
+        var batchEnd = appendedSequence;
+        pending = spare;
+        spare = null;
+        lock.unlock();
+
+        IOException writeFailure = null;
+        try {
+            batch.flip();
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            writeFailure = e;
+        } finally {
+            lock.lock();
+            batch.clear();
+            spare = batch;
+            flushing = false;
+            if (writeFailure == null) {
+                durableSequence = batchEnd;
+                flushCount++;
+            } else {
+                failure = writeFailure;  // The batch is gone, so later records could never be made durable in order
+            }
+            flushed.signalAll();
+        }
+
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+    }
+
+    static long replay(Path path, RecordHandler handler) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        try (var channel = FileChannel.open(path, READ)) {
+            return scan(channel, handler);
+        }
+    }
+
+    // Hands every record before the torn tail to the handler and returns how many there were
+    private static long scan(FileChannel channel, RecordHandler handler) throws IOException {
+        var complete = channel.size() / RECORD_SIZE;
+        var buffer = ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE / RECORD_SIZE * RECORD_SIZE);
+        var crc = new CRC32C();
+        var records = 0L;
+        var firstFailed = -1L;
+
+        for (var index = 0L; index < complete; ) {
+            // Reads by position until the chunk is full; only the file length decides where the log ends
+            var position = index * RECORD_SIZE;
+            buffer.clear().limit((int) Math.min(buffer.capacity(), (complete - index) * RECORD_SIZE));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Write-ahead log shrank while it was read");
+                }
+            }
+
+            for (var offset = 0; offset < buffer.limit(); offset += RECORD_SIZE, index++) {
+                if (buffer.getInt(offset + TransactionRecord.SIZE) != checksum(crc, buffer, offset)) {
+                    if (firstFailed < 0) {
+                        firstFailed = index;
+                    }
+                    continue;
+                }
+                if (firstFailed >= 0) {
+                    throw new IOException("Write-ahead log record " + firstFailed + " is corrupt, yet record " + index
+                            + " after it is valid");
+                }
+                handler.accept(TransactionRecord.transactionId(buffer, offset), TransactionRecord.accountId(buffer, offset),
+                        TransactionRecord.amount(buffer, offset), TransactionRecord.isDebit(buffer, offset));
+                records++;
+            }
+        }
+        return records;
+    }
+
+    private static int checksum(CRC32C crc, ByteBuffer buffer, int offset) {
+        crc.reset();
+        crc.update(buffer.slice(offset, TransactionRecord.SIZE));
+        return (int) crc.getValue();
+    }
+
+    @FunctionalInterface
+    interface RecordHandler {
+        void accept(int transactionId, int accountId, int amount, boolean isDebit);
+    }
+}
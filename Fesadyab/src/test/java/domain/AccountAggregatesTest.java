@@ -0,0 +1,85 @@
+package domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountAggregatesTest {
+
+    private AccountAggregates accountAggregates;
+
+    @BeforeEach
+    void setUp() {
+        accountAggregates = new AccountAggregates();
+    }
+
+    @Test
+    void testAverage_UnknownAccount() {
+        assertEquals(0, accountAggregates.average(1));
+        assertEquals(0, accountAggregates.count(1));
+    }
+
+    @Test
+    void testAverage_SingleAccount() {
+        accountAggregates.add(1, 200);
+        accountAggregates.add(1, 400);
+
+        assertEquals(300, accountAggregates.average(1));
+        assertEquals(2, accountAggregates.count(1));
+    }
+
+    @Test
+    void testAverage_AccountsAreIndependent() {
+        accountAggregates.add(1, 200);
+        accountAggregates.add(2, 500);
+        accountAggregates.add(0, 900);
+        accountAggregates.add(-1, 100);
+
+        assertEquals(200, accountAggregates.average(1));
+        assertEquals(500, accountAggregates.average(2));
+        assertEquals(900, accountAggregates.average(0));
+        assertEquals(100, accountAggregates.average(-1));
+    }
+
+    @Test
+    void testAverage_SurvivesGrowth() {
+        for (int accountId = 0; accountId < 10_000; accountId++) {
+            accountAggregates.add(accountId, accountId * 2);
+            accountAggregates.add(accountId, accountId * 4);
+        }
+
+        assertEquals(10_000, accountAggregates.size);
+        for (int accountId = 0; accountId < 10_000; accountId++) {
+            assertEquals(accountId * 3, accountAggregates.average(accountId));
+        }
+    }
+
+    @Test
+    void testAverage_LargeSumDoesNotOverflow() {
+        accountAggregates.add(1, Integer.MAX_VALUE);
+        accountAggregates.add(1, Integer.MAX_VALUE);
+
+        assertEquals(Integer.MAX_VALUE, accountAggregates.average(1));
+    }
+
+    @Test
+    void testRemove_DropsEmptyAccounts() {
+        for (int accountId = 0; accountId < 1_000; accountId++) {
+            accountAggregates.add(accountId, 100);
+            accountAggregates.add(accountId, 300);
+        }
+
+        for (int accountId = 0; accountId < 1_000; accountId++) {
+            accountAggregates.remove(accountId, 100);
+            if (accountId % 2 == 0) {
+                accountAggregates.remove(accountId, 300);
+            }
+        }
+
+        assertEquals(500, accountAggregates.size);
+        for (int accountId = 0; accountId < 1_000; accountId++) {
+            assertEquals(accountId % 2 == 0 ? 0 : 300, accountAggregates.average(accountId));
+        }
+    }
+}
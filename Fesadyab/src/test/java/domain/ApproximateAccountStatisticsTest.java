@@ -0,0 +1,217 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApproximateAccountStatisticsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAverage_UnknownAccount() {
+        ApproximateAccountStatistics statistics = new ApproximateAccountStatistics(0.01, 0.01, 10);
+
+        assertEquals(0, statistics.average(1));
+    }
+
+    @Test
+    void testAdd_PromotesHotAccountToExactTier() {
+        ApproximateAccountStatistics statistics = new ApproximateAccountStatistics(0.01, 0.01, 10, 2);
+
+        statistics.add(1, 200);
+        assertFalse(statistics.isExact(1));
+        assertEquals(200, statistics.average(1));
+
+        statistics.add(1, 400);
+        assertTrue(statistics.isExact(1));
+        statistics.add(1, 600);
+        assertEquals(400, statistics.average(1));
+    }
+
+    @Test
+    void testRemove_FreesExactSlotForAnotherAccount() {
+        ApproximateAccountStatistics statistics = new ApproximateAccountStatistics(0.01, 0.01, 1, 1);
+
+        statistics.add(1, 100);
+        statistics.add(2, 300);
+        assertTrue(statistics.isExact(1));
+        assertFalse(statistics.isExact(2));
+
+        statistics.remove(1, 100);
+        statistics.remove(2, 300);
+        assertEquals(0, statistics.average(1));
+        assertEquals(0, statistics.average(2));
+
+        statistics.add(2, 500);
+        assertTrue(statistics.isExact(2));
+        assertEquals(500, statistics.average(2));
+    }
+
+    @Test
+    void testAdd_PromotionKeepsAccountsCollidingInEveryRow() {
+        ApproximateAccountStatistics statistics = new ApproximateAccountStatistics(0.9, 0.1, 10, 2);
+        int hot = 1;
+        int colliding = 2;
+        while (!collidesInEveryRow(statistics, hot, colliding)) {
+            colliding++;
+        }
+
+        statistics.add(colliding, 100);
+        statistics.add(hot, 1000);
+        assertTrue(statistics.isExact(hot));
+        assertFalse(statistics.isExact(colliding));
+        assertTrue(statistics.average(colliding) > 0);
+
+        // Evicting in arrival order drains both accounts from the sketch without driving any cell negative
+        statistics.remove(colliding, 100);
+        statistics.remove(hot, 1000);
+        for (long count : statistics.sketchCounts) {
+            assertEquals(0, count);
+        }
+        assertEquals(0, statistics.average(colliding));
+    }
+
+    @Test
+    void testAdd_PromotedAccountCarriesNoCollidingMassOnceResidualIsEvicted() {
+        ApproximateAccountStatistics statistics = new ApproximateAccountStatistics(0.9, 0.1, 10, 4);
+        int hot = 1;
+        int colliding = 2;
+        while (!collidesInEveryRow(statistics, hot, colliding)) {
+            colliding++;
+        }
+
+        for (int i = 0; i < 3; i++) {
+            statistics.add(colliding, 100);
+        }
+        // The colliding mass counts towards the estimate, so the hot account is promoted on its first transaction
+        statistics.add(hot, 1000);
+        statistics.add(hot, 2000);
+
+        // The exact tier starts from the promoting transaction; only the sketch residual holds colliding mass
+        assertTrue(statistics.isExact(hot));
+        assertEquals(3000, statistics.exact.sum(hot));
+        assertEquals(2, statistics.exact.count(hot));
+        assertEquals((3000 + 300) / 5, statistics.average(hot));
+
+        for (int i = 0; i < 3; i++) {
+            statistics.remove(colliding, 100);
+        }
+        assertEquals(1500, statistics.average(hot));
+    }
+
+    @Test
+    void testAdd_HotterAccountReplacesColdestMember() {
+        ApproximateAccountStatistics statistics = new ApproximateAccountStatistics(0.01, 0.01, 1, 1);
+
+        statistics.add(1, 100);
+        statistics.add(2, 300);
+        assertTrue(statistics.isExact(1));
+        assertFalse(statistics.isExact(2));
+
+        // Account 2 now has two transactions against account 1's one
+        statistics.add(2, 500);
+        assertTrue(statistics.isExact(2));
+        assertFalse(statistics.isExact(1));
+        assertEquals(100, statistics.average(1));
+        assertEquals(400, statistics.average(2));
+
+        // Evicting in arrival order takes each transaction from the tier that holds it
+        statistics.remove(1, 100);
+        statistics.remove(2, 300);
+        assertEquals(0, statistics.average(1));
+        assertEquals(500, statistics.average(2));
+        statistics.remove(2, 500);
+        assertFalse(statistics.isExact(2));
+        for (long count : statistics.sketchCounts) {
+            assertEquals(0, count);
+        }
+    }
+
+    private static boolean collidesInEveryRow(ApproximateAccountStatistics statistics, int first, int second) {
+        for (int row = 0; row < statistics.depth; row++) {
+            if (statistics.cell(row, first) != statistics.cell(row, second)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    void testMemoryBytes_IndependentOfAccountCardinality() {
+        ApproximateAccountStatistics statistics = new ApproximateAccountStatistics(0.001, 0.01, 1_000);
+        long before = statistics.memoryBytes();
+        int exactTableLength = statistics.exact.accountIds.length;
+
+        for (int accountId = 0; accountId < 1_000_000; accountId++) {
+            statistics.add(accountId, 100);
+            statistics.add(accountId, 100);
+        }
+
+        assertEquals(before, statistics.memoryBytes());
+        assertEquals(exactTableLength, statistics.exact.accountIds.length);
+        assertEquals(1_000, statistics.exact.size);
+    }
+
+    @Test
+    void testAverage_SketchedAccountsWithinErrorBound() {
+        double epsilon = 0.001;
+        int accounts = 500;
+        ApproximateAccountStatistics statistics = new ApproximateAccountStatistics(epsilon, 0.01, 0);
+        AccountAggregates exact = new AccountAggregates();
+        Random random = new Random(47);
+
+        int transactions = 20_000;
+        for (int i = 0; i < transactions; i++) {
+            int accountId = random.nextInt(accounts);
+            int amount = 1 + random.nextInt(2000);
+            statistics.add(accountId, amount);
+            exact.add(accountId, amount);
+        }
+
+        int withinBound = 0;
+        for (int accountId = 0; accountId < accounts; accountId++) {
+            // Colliding accounts draw amounts from the same range, so a small count overshoot barely moves the mean
+            if (Math.abs(statistics.average(accountId) - exact.average(accountId)) <= 100) {
+                withinBound++;
+            }
+        }
+        assertTrue(withinBound >= accounts * 0.95, "within bound: " + withinBound);
+    }
+
+    @Test
+    void testTransactionEngine_MatchesExactWhenEveryAccountFits() {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(53), 3_000);
+        int[] expected = new TransactionEngine().addTransactionsAndDetectFraud(transactions);
+
+        TransactionEngine engine = new TransactionEngine(new ColumnarTransactionStore(),
+                new ApproximateAccountStatistics(0.01, 0.01, 100_000, 1), TransactionEngine.defaultRules());
+
+        assertArrayEquals(expected, engine.addTransactionsAndDetectFraud(transactions));
+    }
+
+    @Test
+    void testTransactionEngine_SnapshotNeedsExactStatistics() {
+        TransactionEngine engine = new TransactionEngine(new ColumnarTransactionStore(),
+                new ApproximateAccountStatistics(0.01, 0.01, 10), TransactionEngine.defaultRules());
+
+        assertThrows(IOException.class, () -> engine.writeSnapshot(tempDir.resolve("engine.snapshot")));
+        assertFalse(Files.exists(tempDir.resolve("engine.snapshot.tmp")));
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateAccountStatistics(0, 0.01, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateAccountStatistics(0.01, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateAccountStatistics(0.01, 0.01, -1));
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateAccountStatistics(1e-12, 0.01, 10));
+    }
+}
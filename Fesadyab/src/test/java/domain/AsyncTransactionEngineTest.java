@@ -0,0 +1,231 @@
+package domain;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncTransactionEngineTest {
+    private AsyncTransactionEngine asyncEngine;
+
+    @BeforeEach
+    void setUp() {
+        asyncEngine = new AsyncTransactionEngine(new TransactionEngine(), 64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncEngine.close();
+    }
+
+    @Test
+    void testSubmit_MatchesSynchronousEngine() throws Exception {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(89), 2_000);
+        int[] expected = new TransactionEngine().addTransactionsAndDetectFraud(transactions);
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (Transaction txn : transactions) {
+            futures.add(asyncEngine.submit(txn));
+        }
+
+        for (int i = 0; i < transactions.size(); i++) {
+            assertEquals(expected[i], (int) futures.get(i).get());
+        }
+    }
+
+    @Test
+    void testSubmitAll_InterleavesWithSingleSubmissions() throws Exception {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(97), 1_000);
+        int[] expected = new TransactionEngine().addTransactionsAndDetectFraud(transactions);
+
+        CompletableFuture<Integer> first = asyncEngine.submit(transactions.get(0));
+        CompletableFuture<int[]> middle = asyncEngine.submitAll(transactions.subList(1, 999));
+        CompletableFuture<Integer> last = asyncEngine.submit(transactions.get(999));
+
+        assertEquals(expected[0], (int) first.get());
+        int[] middleScores = middle.get();
+        for (int i = 0; i < middleScores.length; i++) {
+            assertEquals(expected[i + 1], middleScores[i]);
+        }
+        assertEquals(expected[999], (int) last.get());
+    }
+
+    @Test
+    void testSubmit_ConcurrentProducers() throws Exception {
+        int producers = 4;
+        int perProducer = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            List<Future<List<CompletableFuture<Integer>>>> submitted = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int producer = p;
+                submitted.add(executor.submit(() -> {
+                    List<CompletableFuture<Integer>> futures = new ArrayList<>();
+                    for (int i = 0; i < perProducer; i++) {
+                        Transaction txn = new Transaction();
+                        txn.setTransactionId(producer * perProducer + i);
+                        txn.setAccountId(producer);
+                        txn.setAmount(100);
+                        txn.setDebit(false);
+                        futures.add(asyncEngine.submit(txn));
+                    }
+                    return futures;
+                }));
+            }
+            for (Future<List<CompletableFuture<Integer>>> futures : submitted) {
+                for (CompletableFuture<Integer> future : futures.get()) {
+                    future.get();
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        asyncEngine.close();
+        assertEquals(producers * perProducer, asyncEngine.getEngine().transactionHistory.size());
+    }
+
+    @Test
+    void testClose_ScoresQueuedSubmissionsThenRejects() throws Exception {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (Transaction txn : TransactionEngineTest.randomTransactions(new Random(101), 500)) {
+            futures.add(asyncEngine.submit(txn));
+        }
+
+        asyncEngine.close();
+
+        for (CompletableFuture<Integer> future : futures) {
+            assertTrue(future.isDone());
+        }
+        Transaction txn = new Transaction();
+        assertThrows(IllegalStateException.class, () -> asyncEngine.submit(txn));
+    }
+
+    @Test
+    void testSubmit_FullQueueRejectsAtOnce() throws Exception {
+        CountDownLatch scoring = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FraudRule blockingRule = new FraudRule() {
+            @Override
+            public int score(TransactionHistory history, int transactionId, int accountId, int amount, boolean isDebit) {
+                scoring.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return 0;
+            }
+
+            @Override
+            public int cost() {
+                return 1;
+            }
+        };
+        AsyncTransactionEngine blocked = new AsyncTransactionEngine(new TransactionEngine(new ColumnarTransactionStore(), List.of(blockingRule)), 64, 2);
+        try {
+            List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(103), 4);
+            CompletableFuture<Integer> first = blocked.submit(transactions.get(0));
+            scoring.await();
+
+            CompletableFuture<Integer> second = blocked.submit(transactions.get(1));
+            CompletableFuture<int[]> third = blocked.submitAll(transactions.subList(2, 3));
+            CompletableFuture<Integer> rejected = blocked.submit(transactions.get(3));
+
+            assertTrue(rejected.isDone());
+            assertInstanceOf(RejectedExecutionException.class, assertThrows(ExecutionException.class, rejected::get).getCause());
+            release.countDown();
+            assertEquals(0, (int) first.get());
+            assertEquals(0, (int) second.get());
+            assertArrayEquals(new int[]{0}, third.get());
+        } finally {
+            release.countDown();
+            blocked.close();
+        }
+    }
+
+    @Test
+    void testSubmit_RuleFailureOnlyFailsItsFuture() throws Exception {
+        FraudRule failingRule = new FraudRule() {
+            @Override
+            public int score(TransactionHistory history, int transactionId, int accountId, int amount, boolean isDebit) {
+                if (transactionId == 2) {
+                    throw new IllegalStateException("boom");
+                }
+                return 0;
+            }
+
+            @Override
+            public int cost() {
+                return 1;
+            }
+        };
+        AsyncTransactionEngine failing = new AsyncTransactionEngine(new TransactionEngine(new ColumnarTransactionStore(), List.of(failingRule)));
+        try {
+            Transaction ok = new Transaction();
+            ok.setTransactionId(1);
+            Transaction bad = new Transaction();
+            bad.setTransactionId(2);
+
+            CompletableFuture<Integer> okFuture = failing.submit(ok);
+            CompletableFuture<Integer> badFuture = failing.submit(bad);
+
+            assertEquals(0, (int) okFuture.get());
+            assertThrows(ExecutionException.class, badFuture::get);
+            assertEquals(0, (int) failing.submit(ok).get());
+        } finally {
+            failing.close();
+        }
+    }
+
+    @Test
+    void testSubmit_FatalErrorFailsPendingAndLaterSubmissions() throws Exception {
+        Error fatal = new OutOfMemoryError("simulated");
+        FraudRule fatalRule = new FraudRule() {
+            @Override
+            public int score(TransactionHistory history, int transactionId, int accountId, int amount, boolean isDebit) {
+                if (transactionId == 2) {
+                    throw fatal;
+                }
+                return 0;
+            }
+
+            @Override
+            public int cost() {
+                return 1;
+            }
+        };
+        AsyncTransactionEngine failing = new AsyncTransactionEngine(new TransactionEngine(new ColumnarTransactionStore(), List.of(fatalRule)));
+        try {
+            Transaction ok = new Transaction();
+            ok.setTransactionId(1);
+            Transaction bad = new Transaction();
+            bad.setTransactionId(2);
+            Transaction queued = new Transaction();
+            queued.setTransactionId(3);
+
+            CompletableFuture<Integer> okFuture = failing.submit(ok);
+            CompletableFuture<Integer> badFuture = failing.submit(bad);
+            CompletableFuture<int[]> queuedFuture = failing.submitAll(List.of(queued));
+
+            assertEquals(0, (int) okFuture.get());
+            assertSame(fatal, assertThrows(ExecutionException.class, badFuture::get).getCause());
+            assertSame(fatal, assertThrows(ExecutionException.class, queuedFuture::get).getCause());
+            assertSame(fatal, assertThrows(ExecutionException.class, () -> failing.submit(queued).get()).getCause());
+        } finally {
+            failing.close();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package domain;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterNodeTest {
+    private ClusterNode node;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        node = ClusterNode.start(0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        node.close();
+    }
+
+    @Test
+    void testClaim_OnlyFirstClaimSucceeds() throws IOException {
+        try (Socket socket = new Socket(node.address().getAddress(), node.address().getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            out.writeByte(ClusterNode.CLAIM);
+            out.writeInt(7);
+            out.writeLong(1);
+            out.writeByte(ClusterNode.CLAIM);
+            out.writeInt(7);
+            out.writeLong(2);
+            out.flush();
+
+            assertEquals(1, in.readInt());
+            assertEquals(0, in.readInt());
+        }
+    }
+
+    @Test
+    void testRelease_OnlyWithTheClaimToken() throws IOException {
+        try (Socket socket = new Socket(node.address().getAddress(), node.address().getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            out.writeByte(ClusterNode.CLAIM);
+            out.writeInt(7);
+            out.writeLong(1);
+            out.writeByte(ClusterNode.RELEASE);
+            out.writeInt(7);
+            out.writeLong(2);
+            out.writeByte(ClusterNode.RELEASE);
+            out.writeInt(7);
+            out.writeLong(1);
+            out.writeByte(ClusterNode.CLAIM);
+            out.writeInt(7);
+            out.writeLong(2);
+            out.flush();
+
+            assertEquals(1, in.readInt());
+            assertEquals(0, in.readInt());
+            assertEquals(1, in.readInt());
+            assertEquals(1, in.readInt());
+        }
+    }
+
+    @Test
+    void testScore_UsesAccountAverage() throws IOException {
+        try (Socket socket = new Socket(node.address().getAddress(), node.address().getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            out.writeByte(ClusterNode.SCORE);
+            out.writeInt(1);
+            out.writeInt(5);
+            out.writeInt(100);
+            out.writeBoolean(false);
+            out.writeByte(ClusterNode.SCORE);
+            out.writeInt(2);
+            out.writeInt(5);
+            out.writeInt(500);
+            out.writeBoolean(true);
+            out.writeByte(ClusterNode.AVERAGE);
+            out.writeInt(5);
+            out.flush();
+
+            assertEquals(0, in.readInt());
+            assertEquals(300, in.readInt());
+            assertEquals(300, in.readInt());
+        }
+    }
+
+    @Test
+    void testServe_UnknownOpcodeDropsOnlyThatConnection() throws IOException {
+        try (Socket socket = new Socket(node.address().getAddress(), node.address().getPort())) {
+            socket.getOutputStream().write(99);
+            socket.getOutputStream().flush();
+            assertEquals(-1, socket.getInputStream().read());
+        }
+
+        try (ClusterRouter router = new ClusterRouter(List.of(node.address()))) {
+            assertEquals(0, router.getAverageTransactionAmountByAccount(1));
+        }
+    }
+
+    @Test
+    void testMain_NodesInSeparateJvms() throws Exception {
+        List<Process> processes = new ArrayList<>();
+        try {
+            List<InetSocketAddress> addresses = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                        "-cp", System.getProperty("java.class.path"), ClusterNode.class.getName(), "0")
+                        .redirectErrorStream(true)
+                        .start();
+                processes.add(process);
+
+                String line = new BufferedReader(new InputStreamReader(process.getInputStream())).readLine();
+                assertNotNull(line);
+                int port = Integer.parseInt(line.substring(line.lastIndexOf(' ') + 1));
+                addresses.add(new InetSocketAddress(node.address().getAddress(), port));
+            }
+
+            List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(61), 1_000);
+            int[] expected = new TransactionEngine().addTransactionsAndDetectFraud(transactions);
+
+            try (ClusterRouter router = new ClusterRouter(addresses)) {
+                assertArrayEquals(expected, router.addTransactionsAndDetectFraud(transactions.toArray(Transaction[]::new)));
+            }
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package domain;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterRouterTest {
+    private final List<ClusterNode> nodes = new ArrayList<>();
+    private ClusterRouter router;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ClusterNode node = ClusterNode.start(0);
+            nodes.add(node);
+            addresses.add(node.address());
+        }
+        router = new ClusterRouter(addresses);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        router.close();
+        for (ClusterNode node : nodes) {
+            node.close();
+        }
+    }
+
+    @Test
+    void testAddTransactionAndDetectFraud_MatchesSingleEngine() throws IOException {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(67), 2_000);
+        TransactionEngine engine = new TransactionEngine();
+
+        for (Transaction txn : transactions) {
+            assertEquals(engine.addTransactionAndDetectFraud(txn), router.addTransactionAndDetectFraud(txn));
+        }
+        for (int accountId = 0; accountId < 20; accountId++) {
+            assertEquals(engine.getAverageTransactionAmountByAccount(accountId), router.getAverageTransactionAmountByAccount(accountId));
+        }
+    }
+
+    @Test
+    void testAddTransactionsAndDetectFraud_BatchMatchesSingleEngine() throws IOException {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(71), 5_000);
+        int[] expected = new TransactionEngine().addTransactionsAndDetectFraud(transactions);
+
+        assertArrayEquals(expected, router.addTransactionsAndDetectFraud(transactions.toArray(Transaction[]::new)));
+    }
+
+    @Test
+    void testAddTransactionAndDetectFraud_DuplicateAcrossAccounts() throws IOException {
+        Transaction first = new Transaction();
+        first.setTransactionId(42);
+        first.setAccountId(1);
+        first.setAmount(100);
+        first.setDebit(false);
+
+        Transaction duplicate = new Transaction();
+        duplicate.setTransactionId(42);
+        duplicate.setAccountId(2);
+        duplicate.setAmount(5000);
+        duplicate.setDebit(true);
+
+        assertEquals(0, router.addTransactionAndDetectFraud(first));
+        assertEquals(0, router.addTransactionAndDetectFraud(duplicate));
+        assertEquals(0, router.getAverageTransactionAmountByAccount(2));
+    }
+
+    @Test
+    void testAddTransactionAndDetectFraud_RetryAfterScoreFailure() throws IOException {
+        Transaction txn = transactionOnTwoNodes(7);
+        int accountOwner = router.nodeFor(txn.accountId);
+
+        restartAfterFailure(accountOwner, () -> router.addTransactionAndDetectFraud(txn));
+
+        assertEquals(300, router.addTransactionAndDetectFraud(txn));
+    }
+
+    @Test
+    void testAddTransactionsAndDetectFraud_RetryAfterScoreFailure() throws IOException {
+        Transaction txn = transactionOnTwoNodes(11);
+        int accountOwner = router.nodeFor(txn.accountId);
+
+        restartAfterFailure(accountOwner, () -> router.addTransactionsAndDetectFraud(new Transaction[]{txn}));
+
+        assertArrayEquals(new int[]{300}, router.addTransactionsAndDetectFraud(new Transaction[]{txn}));
+    }
+
+    @Test
+    void testAddTransactionAndDetectFraud_RetryAfterLostClaimResponse() throws IOException {
+        Transaction txn = transactionOnTwoNodes(13);
+        ClusterNode idOwner = nodes.get(router.nodeFor(txn.transactionId));
+
+        idOwner.dropConnectionAfterClaim = true;
+        assertThrows(IOException.class, () -> router.addTransactionAndDetectFraud(txn));
+        idOwner.dropConnectionAfterClaim = false;
+
+        assertEquals(300, router.addTransactionAndDetectFraud(txn));
+    }
+
+    @Test
+    void testAddTransactionsAndDetectFraud_RetryAfterLostClaimResponse() throws IOException {
+        Transaction scored = transactionOnTwoNodes(17);
+        ClusterNode idOwner = nodes.get(router.nodeFor(scored.transactionId));
+        Transaction fresh = transactionOnTwoNodes(17);
+        do {
+            fresh.setTransactionId(fresh.transactionId + 1);
+        } while (router.nodeFor(fresh.transactionId) != router.nodeFor(scored.transactionId));
+        Transaction[] batch = {fresh, scored};
+
+        TransactionEngine engine = new TransactionEngine();
+        assertEquals(engine.addTransactionAndDetectFraud(scored), router.addTransactionAndDetectFraud(scored));
+
+        idOwner.dropConnectionAfterClaim = true;
+        assertThrows(IOException.class, () -> router.addTransactionsAndDetectFraud(batch));
+        idOwner.dropConnectionAfterClaim = false;
+
+        // Releasing the whole chunk frees the fresh id but not the one an earlier claim holds
+        assertArrayEquals(engine.addTransactionsAndDetectFraud(batch), router.addTransactionsAndDetectFraud(batch));
+        assertEquals(engine.getAverageTransactionAmountByAccount(17), router.getAverageTransactionAmountByAccount(17));
+    }
+
+    // A debit whose id and account hash to different nodes, so the claim succeeds while scoring can fail
+    private Transaction transactionOnTwoNodes(int accountId) {
+        int transactionId = 1;
+        while (router.nodeFor(transactionId) == router.nodeFor(accountId)) {
+            transactionId++;
+        }
+
+        Transaction txn = new Transaction();
+        txn.setTransactionId(transactionId);
+        txn.setAccountId(accountId);
+        txn.setAmount(300);
+        txn.setDebit(true);
+        return txn;
+    }
+
+    private void restartAfterFailure(int node, Executable failingCall) throws IOException {
+        int port = nodes.get(node).address().getPort();
+        nodes.get(node).close();
+        assertThrows(IOException.class, failingCall);
+
+        nodes.set(node, ClusterNode.start(port));
+    }
+
+    @Test
+    void testNodeFor_UsesEveryNode() {
+        boolean[] used = new boolean[nodes.size()];
+        for (int key = 0; key < 1_000; key++) {
+            used[router.nodeFor(key)] = true;
+        }
+
+        for (boolean nodeUsed : used) {
+            assertTrue(nodeUsed);
+        }
+    }
+}
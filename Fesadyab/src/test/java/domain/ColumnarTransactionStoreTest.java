@@ -0,0 +1,72 @@
+package domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTransactionStoreTest {
+
+    private ColumnarTransactionStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ColumnarTransactionStore(2);
+    }
+
+    @Test
+    void testAppend_ReadsBackColumns() {
+        store.append(1, 100, 500, true);
+        store.append(2, 200, 300, false);
+
+        assertEquals(2, store.size());
+        assertEquals(1, store.transactionId(0));
+        assertEquals(100, store.accountId(0));
+        assertEquals(500, store.amount(0));
+        assertTrue(store.isDebit(0));
+        assertEquals(2, store.transactionId(1));
+        assertEquals(200, store.accountId(1));
+        assertEquals(300, store.amount(1));
+        assertFalse(store.isDebit(1));
+    }
+
+    @Test
+    void testAppend_GrowsPastInitialCapacity() {
+        for (int i = 0; i < 1_000; i++) {
+            store.append(i, i % 7, i * 10, i % 3 == 0);
+        }
+
+        assertEquals(1_000, store.size());
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i, store.transactionId(i));
+            assertEquals(i % 7, store.accountId(i));
+            assertEquals(i * 10, store.amount(i));
+            assertEquals(i % 3 == 0, store.isDebit(i));
+        }
+    }
+
+    @Test
+    void testGet_MaterializesTransaction() {
+        Transaction txn = new Transaction();
+        txn.setTransactionId(5);
+        txn.setAccountId(50);
+        txn.setAmount(1500);
+        txn.setDebit(true);
+
+        store.add(txn);
+        Transaction result = store.get(0);
+
+        assertEquals(txn, result);
+        assertEquals(50, result.getAccountId());
+        assertEquals(1500, result.getAmount());
+        assertTrue(result.isDebit);
+    }
+
+    @Test
+    void testGet_OutOfBounds() {
+        store.append(1, 1, 1, false);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> store.amount(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.isDebit(-1));
+    }
+}
@@ -0,0 +1,146 @@
+package domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTransactionEngineTest {
+
+    private ConcurrentTransactionEngine concurrentEngine;
+
+    @BeforeEach
+    void setUp() {
+        concurrentEngine = new ConcurrentTransactionEngine(4);
+    }
+
+    @Test
+    void testAddTransactionAndDetectFraud_SingleThreadMatchesTransactionEngine() {
+        TransactionEngine transactionEngine = new TransactionEngine();
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(11), 2_000);
+
+        for (Transaction txn : transactions) {
+            assertEquals(transactionEngine.addTransactionAndDetectFraud(txn), concurrentEngine.addTransactionAndDetectFraud(txn));
+        }
+        assertEquals(transactionEngine.transactionHistory.size(), concurrentEngine.size());
+    }
+
+    @Test
+    void testAddTransactionAndDetectFraud_DuplicateAcrossShards() {
+        Transaction txn1 = new Transaction();
+        txn1.setTransactionId(1);
+        txn1.setAccountId(1);
+        txn1.setAmount(300);
+        txn1.setDebit(true);
+
+        Transaction txn2 = new Transaction();
+        txn2.setTransactionId(1);
+        txn2.setAccountId(2);
+        txn2.setAmount(900);
+        txn2.setDebit(true);
+
+        assertEquals(300, concurrentEngine.addTransactionAndDetectFraud(txn1));
+        assertEquals(0, concurrentEngine.addTransactionAndDetectFraud(txn2));
+        assertEquals(1, concurrentEngine.size());
+        assertEquals(0, concurrentEngine.getAverageTransactionAmountByAccount(2));
+    }
+
+    @Test
+    void testAddTransactionAndDetectFraud_ConcurrentWriters() throws Exception {
+        int threads = 8;
+        int perThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures[t] = executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        Transaction txn = new Transaction();
+                        // Half of every thread's ids collide with the next thread's
+                        txn.setTransactionId(thread * perThread / 2 + i);
+                        txn.setAccountId(thread);
+                        txn.setAmount(100);
+                        txn.setDebit(false);
+
+                        concurrentEngine.addTransactionAndDetectFraud(txn);
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int distinctIds = (threads - 1) * perThread / 2 + perThread;
+        assertEquals(distinctIds, concurrentEngine.size());
+        assertEquals(distinctIds, concurrentEngine.transactionIds.size());
+        // The first and last writers own ids no other writer can claim
+        assertEquals(100, concurrentEngine.getAverageTransactionAmountByAccount(0));
+        assertEquals(100, concurrentEngine.getAverageTransactionAmountByAccount(threads - 1));
+    }
+
+    @Test
+    void testAddTransactionAndDetectFraud_PatternSeesEveryConcurrentWriter() throws Exception {
+        concurrentEngine.addTransactionAndDetectFraud(transaction(0, 0, 1200));
+
+        int threads = 8;
+        int perThread = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures[t] = executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        // Repeats of the anchor amount keep the pattern open, so every writer goes through the sequencer
+                        assertEquals(0, concurrentEngine.addTransactionAndDetectFraud(transaction(1 + thread * perThread + i, thread, 1200)));
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1 + threads * perThread, concurrentEngine.nextTicket.get());
+        assertEquals(0, concurrentEngine.addTransactionAndDetectFraud(transaction(-1, 100, 1500)));
+        assertEquals(300, concurrentEngine.addTransactionAndDetectFraud(transaction(-2, 100, 1800)));
+    }
+
+    @Test
+    void testAddTransactionAndDetectFraud_BrokenPatternSkipsTheSequencer() {
+        concurrentEngine.addTransactionAndDetectFraud(transaction(1, 1, 1200));
+        concurrentEngine.addTransactionAndDetectFraud(transaction(2, 2, 1500));
+        concurrentEngine.addTransactionAndDetectFraud(transaction(3, 3, 1900));
+        long tickets = concurrentEngine.nextTicket.get();
+
+        assertEquals(0, concurrentEngine.addTransactionAndDetectFraud(transaction(4, 4, 2200)));
+        assertEquals(tickets, concurrentEngine.nextTicket.get());
+    }
+
+    @Test
+    void testConstructor_RejectsNonPositiveShardCount() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentTransactionEngine(0));
+    }
+
+    private static Transaction transaction(int transactionId, int accountId, int amount) {
+        Transaction txn = new Transaction();
+        txn.setTransactionId(transactionId);
+        txn.setAccountId(accountId);
+        txn.setAmount(amount);
+        txn.setDebit(false);
+        return txn;
+    }
+}
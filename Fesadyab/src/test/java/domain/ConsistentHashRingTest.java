@@ -0,0 +1,56 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    @Test
+    void testNodeFor_SpreadsKeysEvenly() {
+        int nodes = 4;
+        int keys = 100_000;
+        ConsistentHashRing ring = new ConsistentHashRing(nodes);
+        int[] counts = new int[nodes];
+
+        for (int key = 0; key < keys; key++) {
+            counts[ring.nodeFor(key)]++;
+        }
+
+        for (int count : counts) {
+            assertTrue(count > keys / nodes / 2 && count < keys / nodes * 3 / 2, "count " + count);
+        }
+    }
+
+    @Test
+    void testNodeFor_AddingNodeOnlyMovesKeysToIt() {
+        int keys = 100_000;
+        ConsistentHashRing before = new ConsistentHashRing(4);
+        ConsistentHashRing after = new ConsistentHashRing(5);
+
+        int moved = 0;
+        for (int key = 0; key < keys; key++) {
+            int oldNode = before.nodeFor(key);
+            int newNode = after.nodeFor(key);
+            if (oldNode != newNode) {
+                assertEquals(4, newNode);
+                moved++;
+            }
+        }
+
+        assertTrue(moved > keys / 10 && moved < keys * 3 / 10, "moved " + moved);
+    }
+
+    @Test
+    void testNodeFor_SingleNode() {
+        ConsistentHashRing ring = new ConsistentHashRing(1);
+
+        assertEquals(0, ring.nodeFor(Integer.MIN_VALUE));
+        assertEquals(0, ring.nodeFor(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testConstructor_RejectsEmptyRing() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(0));
+    }
+}
@@ -0,0 +1,101 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableTransactionEngineTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testOpen_RecoversFromLogAfterCrash() throws IOException {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(17), 1_000);
+        TransactionEngine reference = new TransactionEngine();
+
+        DurableTransactionEngine durable = DurableTransactionEngine.open(tempDir);
+        for (Transaction txn : transactions.subList(0, 600)) {
+            assertEquals(reference.addTransactionAndDetectFraud(txn), durable.addTransactionAndDetectFraud(txn));
+        }
+        // No close(): every acknowledged transaction must already be on disk
+
+        try (DurableTransactionEngine recovered = DurableTransactionEngine.open(tempDir)) {
+            assertEquals(reference.transactionHistory.size(), recovered.engine.transactionHistory.size());
+            for (Transaction txn : transactions.subList(600, transactions.size())) {
+                assertEquals(reference.addTransactionAndDetectFraud(txn), recovered.addTransactionAndDetectFraud(txn));
+            }
+        }
+        durable.close();
+    }
+
+    @Test
+    void testCheckpoint_RecoversFromSnapshotPlusLog() throws IOException {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(19), 900);
+        TransactionEngine reference = new TransactionEngine();
+
+        try (DurableTransactionEngine durable = DurableTransactionEngine.open(tempDir)) {
+            int[] expected = reference.addTransactionsAndDetectFraud(transactions.subList(0, 300));
+            assertArrayEquals(expected, durable.addTransactionsAndDetectFraud(transactions.subList(0, 300).toArray(Transaction[]::new)));
+
+            durable.checkpoint();
+            for (Transaction txn : transactions.subList(300, 600)) {
+                assertEquals(reference.addTransactionAndDetectFraud(txn), durable.addTransactionAndDetectFraud(txn));
+            }
+            assertEquals(1, durable.generation);
+        }
+
+        assertTrue(Files.exists(tempDir.resolve("snapshot-1.bin")));
+        assertFalse(Files.exists(tempDir.resolve("wal-0.log")));
+
+        try (DurableTransactionEngine recovered = DurableTransactionEngine.open(tempDir)) {
+            assertEquals(reference.transactionHistory.size(), recovered.engine.transactionHistory.size());
+            for (Transaction txn : transactions.subList(600, transactions.size())) {
+                assertEquals(reference.addTransactionAndDetectFraud(txn), recovered.addTransactionAndDetectFraud(txn));
+            }
+        }
+    }
+
+    @Test
+    void testAddTransactionAndDetectFraud_DuplicateIsNotLogged() throws IOException {
+        Transaction txn = new Transaction();
+        txn.setTransactionId(1);
+        txn.setAccountId(1);
+        txn.setAmount(300);
+        txn.setDebit(true);
+
+        try (DurableTransactionEngine durable = DurableTransactionEngine.open(tempDir)) {
+            assertEquals(300, durable.addTransactionAndDetectFraud(txn));
+            assertEquals(0, durable.addTransactionAndDetectFraud(txn));
+        }
+
+        assertEquals(WriteAheadLog.RECORD_SIZE, Files.size(tempDir.resolve("wal-0.log")));
+    }
+
+    @Test
+    void testAddTransactionAndDetectFraud_RetryAfterLogFailureThrows() throws IOException {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(23), 3);
+
+        DurableTransactionEngine durable = DurableTransactionEngine.open(tempDir);
+        durable.addTransactionAndDetectFraud(transactions.get(0));
+
+        // Closing the log underneath the engine makes the next fsync fail
+        durable.log.close();
+        assertThrows(IOException.class, () -> durable.addTransactionAndDetectFraud(transactions.get(1)));
+        assertThrows(IOException.class, () -> durable.addTransactionAndDetectFraud(transactions.get(1)));
+        assertThrows(IOException.class, () -> durable.addTransactionAndDetectFraud(transactions.get(2)));
+        assertThrows(IOException.class, () -> durable.addTransactionsAndDetectFraud(new Transaction[]{transactions.get(2)}));
+
+        try (DurableTransactionEngine recovered = DurableTransactionEngine.open(tempDir)) {
+            assertEquals(1, recovered.engine.transactionHistory.size());
+            assertFalse(recovered.engine.transactionHistory.contains(transactions.get(1)));
+        }
+    }
+}
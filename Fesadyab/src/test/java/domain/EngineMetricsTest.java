@@ -0,0 +1,63 @@
+package domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineMetricsTest {
+
+    private TransactionEngine transactionEngine;
+    private EngineMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        transactionEngine = new TransactionEngine();
+        metrics = transactionEngine.enableMetrics();
+    }
+
+    @Test
+    void testEnableMetrics_ReturnsSameInstance() {
+        assertSame(metrics, transactionEngine.enableMetrics());
+    }
+
+    @Test
+    void testSnapshot_CountsEveryBranch() {
+        transactionEngine.addTransactionAndDetectFraud(1, 1, 500, false);
+        transactionEngine.addTransactionAndDetectFraud(2, 1, 1200, false);
+        transactionEngine.addTransactionAndDetectFraud(3, 1, 1900, false);
+        transactionEngine.addTransactionAndDetectFraud(3, 1, 1900, false);
+        transactionEngine.addTransactionAndDetectFraud(4, 2, 100, true);
+
+        EngineMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.count(EngineMetrics.Branch.DUPLICATE));
+        assertEquals(2, snapshot.count(EngineMetrics.Branch.FLAGGED));
+        assertEquals(2, snapshot.count(EngineMetrics.Branch.NOT_SUSPICIOUS));
+        assertEquals(1, snapshot.rule("ExcessiveDebitRule").hits());
+        assertEquals(1, snapshot.rule("ThresholdPatternRule").hits());
+        assertEquals(3, snapshot.rule("ThresholdPatternRule").evaluations());
+    }
+
+    @Test
+    void testSnapshot_RecordsStageLatencies() {
+        transactionEngine.addTransactionAndDetectFraud(1, 1, 100, true);
+        transactionEngine.addTransactionAndDetectFraud(1, 1, 100, true);
+
+        EngineMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.latency(EngineMetrics.Stage.DEDUP_CHECK).getCount());
+        assertEquals(1, snapshot.latency(EngineMetrics.Stage.RULE_EVALUATION).getCount());
+        assertEquals(1, snapshot.latency(EngineMetrics.Stage.APPEND).getCount());
+        assertEquals(1, snapshot.rule("ExcessiveDebitRule").latency().getCount());
+        assertEquals(0, snapshot.rule("ThresholdPatternRule").latency().getCount());
+    }
+
+    @Test
+    void testSnapshot_InstrumentedScoresMatchPlainEngine() {
+        TransactionEngine plainEngine = new TransactionEngine();
+        for (Transaction txn : TransactionEngineTest.randomTransactions(new Random(9), 1_000)) {
+            assertEquals(plainEngine.addTransactionAndDetectFraud(txn), transactionEngine.addTransactionAndDetectFraud(txn));
+        }
+    }
+}
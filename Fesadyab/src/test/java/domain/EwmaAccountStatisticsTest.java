@@ -0,0 +1,94 @@
+package domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EwmaAccountStatisticsTest {
+    private EwmaAccountStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new EwmaAccountStatistics(0.5);
+    }
+
+    @Test
+    void testAverage_UnknownAccount() {
+        assertEquals(0, statistics.average(1));
+    }
+
+    @Test
+    void testAdd_FirstTransactionSeedsAverage() {
+        statistics.add(1, 400);
+
+        assertEquals(400, statistics.average(1));
+    }
+
+    @Test
+    void testAdd_DecaysTowardsRecentAmounts() {
+        statistics.add(1, 400);
+        statistics.add(1, 200);
+        statistics.add(1, 100);
+
+        assertEquals(200, statistics.average(1));
+    }
+
+    @Test
+    void testAdd_ManyAccountsSurviveGrowth() {
+        for (int accountId = 0; accountId < 1_000; accountId++) {
+            statistics.add(accountId, accountId);
+        }
+
+        for (int accountId = 0; accountId < 1_000; accountId++) {
+            assertEquals(accountId, statistics.average(accountId));
+        }
+        assertEquals(1_000, statistics.size);
+    }
+
+    @Test
+    void testRemove_IsIgnored() {
+        statistics.add(1, 400);
+        statistics.remove(1, 400);
+
+        assertEquals(400, statistics.average(1));
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidAlpha() {
+        assertThrows(IllegalArgumentException.class, () -> new EwmaAccountStatistics(0));
+        assertThrows(IllegalArgumentException.class, () -> new EwmaAccountStatistics(1.5));
+    }
+
+    @Test
+    void testTransactionEngine_EwmaBaselineWithSmallWindow() {
+        TransactionEngine engine = new TransactionEngine(new RingTransactionStore(2), new EwmaAccountStatistics(0.5),
+                List.of(new ExcessiveDebitRule()));
+
+        Transaction first = new Transaction();
+        first.setTransactionId(1);
+        first.setAccountId(1);
+        first.setAmount(100);
+        first.setDebit(false);
+
+        Transaction second = new Transaction();
+        second.setTransactionId(2);
+        second.setAccountId(1);
+        second.setAmount(300);
+        second.setDebit(false);
+
+        Transaction third = new Transaction();
+        third.setTransactionId(3);
+        third.setAccountId(1);
+        third.setAmount(500);
+        third.setDebit(true);
+
+        assertEquals(0, engine.addTransactionAndDetectFraud(first));
+        assertEquals(0, engine.addTransactionAndDetectFraud(second));
+        // The ring evicts the first transaction, but the baseline keeps its decayed weight: 0.5 * 300 + 0.5 * 100 = 200
+        assertEquals(100, engine.addTransactionAndDetectFraud(third));
+        assertEquals(350, engine.getAverageTransactionAmountByAccount(1));
+    }
+}
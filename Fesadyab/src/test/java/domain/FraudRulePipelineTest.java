@@ -0,0 +1,73 @@
+package domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FraudRulePipelineTest {
+
+    private TransactionHistory history;
+
+    @BeforeEach
+    void setUp() {
+        history = new TransactionHistory();
+    }
+
+    @Test
+    void testConstructor_OrdersRulesByCost() {
+        FraudRule expensive = new FixedRule("expensive", 10, 0);
+        FraudRule cheap = new FixedRule("cheap", 1, 0);
+
+        FraudRulePipeline pipeline = new FraudRulePipeline(List.of(expensive, cheap));
+
+        assertEquals(List.of(cheap, expensive), pipeline.getRules());
+    }
+
+    @Test
+    void testEvaluate_StopsAtFirstNonZeroScore() {
+        FraudRulePipeline pipeline = new FraudRulePipeline(List.of(
+                new FixedRule("miss", 1, 0), new FixedRule("hit", 2, 7), new FixedRule("never", 3, 9)));
+
+        assertEquals(7, pipeline.evaluate(history, 1, 1, 100, true));
+
+        List<FraudRulePipeline.RuleStatistics> statistics = pipeline.statistics();
+        assertEquals(1, statistics.get(0).evaluations());
+        assertEquals(0, statistics.get(0).hits());
+        assertEquals(1, statistics.get(1).hits());
+        assertEquals(1.0, statistics.get(1).hitRate(), 0.0);
+        assertEquals(0, statistics.get(2).evaluations());
+    }
+
+    @Test
+    void testAdapt_PrefersRulesThatHitMoreOften() {
+        FraudRule rarelyHits = new FixedRule("rarely", 1, 0);
+        FraudRule alwaysHits = new FixedRule("always", 2, 5);
+        FraudRulePipeline pipeline = new FraudRulePipeline(List.of(rarelyHits, alwaysHits));
+
+        for (int i = 0; i < 100; i++) {
+            pipeline.evaluate(history, i, 1, 100, true);
+        }
+        pipeline.adapt();
+
+        assertEquals(List.of(alwaysHits, rarelyHits), pipeline.getRules());
+    }
+
+    @Test
+    void testAddTransactionAndDetectFraud_CustomRules() {
+        TransactionEngine engine = new TransactionEngine(new ColumnarTransactionStore(), List.of(new FixedRule("flat", 1, 42)));
+
+        assertEquals(42, engine.addTransactionAndDetectFraud(1, 1, 100, false));
+        assertEquals(0, engine.addTransactionAndDetectFraud(1, 1, 100, false));
+        assertEquals(1, engine.getFraudRules().statistics().getFirst().hits());
+    }
+
+    private record FixedRule(String name, int cost, int fraudScore) implements FraudRule {
+        @Override
+        public int score(TransactionHistory history, int transactionId, int accountId, int amount, boolean isDebit) {
+            return fraudScore;
+        }
+    }
+}
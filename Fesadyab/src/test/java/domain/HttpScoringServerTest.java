@@ -0,0 +1,250 @@
+package domain;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpScoringServerTest {
+    private ConcurrentTransactionEngine engine;
+    private HttpScoringServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        engine = new ConcurrentTransactionEngine();
+        server = HttpScoringServer.start(engine, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        return client.send(request(path, body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest request(String path, String body) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.address().getPort() + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String json(Transaction txn) {
+        return "{\"transactionId\":" + txn.getTransactionId() + ",\"accountId\":" + txn.getAccountId()
+                + ",\"amount\":" + txn.getAmount() + ",\"isDebit\":" + txn.isDebit() + "}";
+    }
+
+    @Test
+    void testPostTransaction_ReturnsScore() throws Exception {
+        post("/transactions", "{\"transactionId\":1,\"accountId\":1,\"amount\":100,\"isDebit\":false}");
+        HttpResponse<String> response = post("/transactions", "{\"transactionId\":2,\"accountId\":1,\"amount\":500,\"isDebit\":true}");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/json", response.headers().firstValue("Content-Type").orElse(null));
+        assertEquals("{\"transactionId\":2,\"fraudScore\":300}", response.body());
+    }
+
+    @Test
+    void testPostBatch_MatchesEngineInOrder() throws Exception {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(83), 500);
+        int[] expected = new TransactionEngine().addTransactionsAndDetectFraud(transactions);
+
+        StringBuilder body = new StringBuilder("[");
+        StringBuilder expectedBody = new StringBuilder("[");
+        for (int i = 0; i < transactions.size(); i++) {
+            if (i > 0) {
+                body.append(',');
+                expectedBody.append(',');
+            }
+            body.append(json(transactions.get(i)));
+            TransactionJson.appendScore(expectedBody, transactions.get(i).getTransactionId(), expected[i]);
+        }
+
+        HttpResponse<String> response = post("/transactions/batch", body.append(']').toString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(expectedBody.append(']').toString(), response.body());
+    }
+
+    @Test
+    void testPostTransaction_ErrorsAreJson() throws Exception {
+        HttpResponse<String> malformed = post("/transactions", "{\"transactionId\":1}");
+        assertEquals(400, malformed.statusCode());
+        assertTrue(malformed.body().startsWith("{\"error\":\"Malformed JSON"));
+
+        assertEquals(404, post("/transactions/unknown", "{}").statusCode());
+
+        HttpResponse<String> get = client.send(HttpRequest.newBuilder(
+                URI.create("http://127.0.0.1:" + server.address().getPort() + "/transactions")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, get.statusCode());
+    }
+
+    @Test
+    void testConcurrentClients_EachTransactionScoredOnce() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            // Every id is sent twice; exactly one of the two requests may record it
+            String body = "{\"transactionId\":" + (i / 2) + ",\"accountId\":" + (i % 10) + ",\"amount\":100,\"isDebit\":false}";
+            responses.add(client.sendAsync(request("/transactions", body), HttpResponse.BodyHandlers.ofString()));
+        }
+
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.get().statusCode());
+        }
+        assertEquals(500, engine.size());
+    }
+
+    @Test
+    void testSlowClients_DoNotBlockOtherRequests() throws Exception {
+        // Far more stalled clients than carrier threads; a server that pinned a carrier per client would hang here
+        int slowClients = Math.max(256, 16 * Runtime.getRuntime().availableProcessors());
+        List<Socket> stalled = new ArrayList<>();
+        try {
+            for (int i = 0; i < slowClients; i++) {
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.address().getPort());
+                stalled.add(socket);
+                OutputStream out = socket.getOutputStream();
+                out.write(("POST /transactions HTTP/1.1\r\nHost: test\r\nContent-Length: 100\r\n\r\n{\"transactionId\":")
+                        .getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+            }
+
+            HttpRequest fast = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.address().getPort() + "/transactions"))
+                    .timeout(Duration.ofSeconds(10))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"transactionId\":1,\"accountId\":1,\"amount\":100,\"isDebit\":false}"))
+                    .build();
+            HttpResponse<String> response = client.send(fast, HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, response.statusCode());
+            assertEquals("{\"transactionId\":1,\"fraudScore\":0}", response.body());
+        } finally {
+            for (Socket socket : stalled) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    void testPostTransaction_OversizedBodyIsRejected() throws Exception {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.address().getPort())) {
+            socket.setSoTimeout(10_000);
+            socket.getOutputStream().write(("POST /transactions HTTP/1.1\r\nHost: test\r\nContent-Length: "
+                    + (HttpScoringServer.MAX_BODY_BYTES + 1) + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+
+            InputStream in = socket.getInputStream();
+            String response = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+            assertTrue(response.startsWith("HTTP/1.1 413 "), response);
+        }
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void testPostTransaction_FailingRuleIsServerError() throws Exception {
+        FraudRule failingRule = new FraudRule() {
+            @Override
+            public int score(TransactionHistory history, int transactionId, int accountId, int amount, boolean isDebit) {
+                throw new IllegalStateException("rule failed");
+            }
+
+            @Override
+            public int cost() {
+                return 1;
+            }
+        };
+        TransactionEngine failingEngine = new TransactionEngine(new ColumnarTransactionStore(), List.of(failingRule));
+
+        try (HttpScoringServer failingServer = HttpScoringServer.start(failingEngine, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                            URI.create("http://127.0.0.1:" + failingServer.address().getPort() + "/transactions"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"transactionId\":1,\"accountId\":1,\"amount\":100,\"isDebit\":false}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(500, response.statusCode());
+            assertTrue(response.body().startsWith("{\"error\":"));
+        }
+    }
+
+    @Test
+    void testIdleConnection_IsClosed() throws Exception {
+        server.idleTimeoutMillis = 100;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.address().getPort())) {
+            socket.setSoTimeout(10_000);
+
+            assertEquals(-1, socket.getInputStream().read());
+        }
+    }
+
+    @Test
+    void testStalledRequest_TimesOut() throws Exception {
+        server.readTimeoutMillis = 100;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.address().getPort())) {
+            socket.setSoTimeout(10_000);
+            socket.getOutputStream().write("POST /transactions HTTP/1.1\r\nHost: test\r\n".getBytes(StandardCharsets.US_ASCII));
+
+            String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+            assertTrue(response.startsWith("HTTP/1.1 408 "), response);
+        }
+    }
+
+    @Test
+    void testConnectionLimit_RejectsWith503() throws Exception {
+        server.maxConnections = 1;
+        Socket idle = new Socket(InetAddress.getLoopbackAddress(), server.address().getPort());
+        try {
+            HttpResponse<String> rejected = post("/transactions", "{\"transactionId\":1,\"accountId\":1,\"amount\":100,\"isDebit\":false}");
+
+            assertEquals(503, rejected.statusCode());
+        } finally {
+            idle.close();
+        }
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void testStart_TransactionEngineKeepsItsRules() throws Exception {
+        FraudRule constantRule = new FraudRule() {
+            @Override
+            public int score(TransactionHistory history, int transactionId, int accountId, int amount, boolean isDebit) {
+                return 7;
+            }
+
+            @Override
+            public int cost() {
+                return 1;
+            }
+        };
+        TransactionEngine customEngine = new TransactionEngine(new ColumnarTransactionStore(), List.of(constantRule));
+
+        try (HttpScoringServer customServer = HttpScoringServer.start(customEngine, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                            URI.create("http://127.0.0.1:" + customServer.address().getPort() + "/transactions"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"transactionId\":1,\"accountId\":1,\"amount\":100,\"isDebit\":false}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+
+            assertEquals("{\"transactionId\":1,\"fraudScore\":7}", response.body());
+        }
+        assertEquals(1, customEngine.transactionHistory.size());
+    }
+}
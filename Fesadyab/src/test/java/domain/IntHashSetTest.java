@@ -0,0 +1,75 @@
+package domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntHashSetTest {
+
+    private IntHashSet set;
+
+    @BeforeEach
+    void setUp() {
+        set = new IntHashSet();
+    }
+
+    @Test
+    void testContains_Empty() {
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(1));
+        assertEquals(0, set.size());
+    }
+
+    @Test
+    void testAdd_NewAndDuplicateKeys() {
+        assertTrue(set.add(1));
+        assertTrue(set.add(0));
+        assertTrue(set.add(-7));
+        assertFalse(set.add(1));
+
+        assertTrue(set.contains(1));
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(-7));
+        assertFalse(set.contains(2));
+        assertEquals(3, set.size());
+    }
+
+    @Test
+    void testAdd_SurvivesGrowth() {
+        for (int key = 0; key < 100_000; key += 3) {
+            assertTrue(set.add(key));
+        }
+
+        for (int key = 0; key < 100_000; key++) {
+            assertEquals(key % 3 == 0, set.contains(key));
+        }
+    }
+
+    @Test
+    void testEnsureCapacity_KeepsExistingKeys() {
+        set.add(42);
+        set.ensureCapacity(1_000);
+
+        assertTrue(set.keys.length * 3 / 4 >= 1_000);
+        assertTrue(set.contains(42));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void testRemove_KeepsProbeChainsIntact() {
+        for (int key = 0; key < 10_000; key++) {
+            set.add(key);
+        }
+
+        for (int key = 0; key < 10_000; key += 2) {
+            assertTrue(set.remove(key));
+        }
+
+        assertFalse(set.remove(0));
+        assertEquals(5_000, set.size());
+        for (int key = 0; key < 10_000; key++) {
+            assertEquals(key % 2 == 1, set.contains(key));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntLongHashMapTest {
+
+    @Test
+    void testPutIfAbsent_KeepsFirstValue() {
+        IntLongHashMap map = new IntLongHashMap();
+
+        assertTrue(map.putIfAbsent(1, 10));
+        assertFalse(map.putIfAbsent(1, 20));
+        assertTrue(map.containsKey(1));
+        assertFalse(map.remove(1, 20));
+        assertTrue(map.remove(1, 10));
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test
+    void testRemove_KeepsProbeChainsAcrossGrowth() {
+        IntLongHashMap map = new IntLongHashMap();
+        for (int key = 0; key < 1_000; key++) {
+            assertTrue(map.putIfAbsent(key * 31, key));
+        }
+        for (int key = 0; key < 1_000; key += 2) {
+            assertTrue(map.remove(key * 31, key));
+        }
+
+        assertEquals(500, map.size());
+        for (int key = 0; key < 1_000; key++) {
+            assertEquals(key % 2 == 1, map.containsKey(key * 31));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    private LatencyHistogram histogram;
+
+    @BeforeEach
+    void setUp() {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    void testSnapshot_Empty() {
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMin());
+        assertEquals(0, snapshot.getValueAtPercentile(99));
+    }
+
+    @Test
+    void testIndexOf_BucketsCoverValuesContiguously() {
+        for (long value : new long[]{0, 1, 127, 128, 129, 1_000, 1_000_000, 123_456_789_012L, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.indexOf(value);
+
+            assertTrue(index < LatencyHistogram.BUCKET_COUNT);
+            assertTrue(LatencyHistogram.highestValueAt(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.highestValueAt(index - 1) < value);
+        }
+    }
+
+    @Test
+    void testSnapshot_Percentiles() {
+        for (int value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(1, snapshot.getMin());
+        assertEquals(10_000, snapshot.getMax());
+        assertEquals(5_000.5, snapshot.getMean(), 0.001);
+        assertEquals(5_000, snapshot.getValueAtPercentile(50), 5_000 / 64.0);
+        assertEquals(9_900, snapshot.getValueAtPercentile(99), 9_900 / 64.0);
+        assertEquals(10_000, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    void testRecord_NegativeValuesClampToZero() {
+        histogram.record(-5);
+
+        assertEquals(0, histogram.snapshot().getMax());
+        assertEquals(1, histogram.snapshot().getCount());
+    }
+}
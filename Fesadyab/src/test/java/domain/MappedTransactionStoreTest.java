@@ -0,0 +1,98 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTransactionStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAppend_CrossesChunkBoundaries() throws IOException {
+        try (MappedTransactionStore store = new MappedTransactionStore(tempDir.resolve("history.bin"), 4)) {
+            for (int i = 0; i < 10; i++) {
+                store.append(i, i % 3, i * 100, i % 2 == 0);
+            }
+
+            assertEquals(10, store.size());
+            for (int i = 0; i < 10; i++) {
+                assertEquals(i, store.transactionId(i));
+                assertEquals(i % 3, store.accountId(i));
+                assertEquals(i * 100, store.amount(i));
+                assertEquals(i % 2 == 0, store.isDebit(i));
+            }
+        }
+    }
+
+    @Test
+    void testReopen_KeepsRecords() throws IOException {
+        Path path = tempDir.resolve("history.bin");
+        try (MappedTransactionStore store = new MappedTransactionStore(path, 4)) {
+            store.append(1, 10, 200, true);
+            store.append(2, 10, 400, false);
+            store.append(3, 20, 500, false);
+        }
+
+        try (MappedTransactionStore store = new MappedTransactionStore(path, 4)) {
+            assertEquals(3, store.size());
+            assertEquals(3, store.transactionId(2));
+            assertEquals(20, store.accountId(2));
+            assertEquals(500, store.amount(2));
+            assertFalse(store.isDebit(2));
+
+            store.append(4, 20, 700, true);
+            assertEquals(4, store.size());
+            assertTrue(store.isDebit(3));
+        }
+    }
+
+    @Test
+    void testReopen_EngineRebuildsIndexes() throws IOException {
+        Path path = tempDir.resolve("history.bin");
+        Transaction txn1 = new Transaction();
+        txn1.setTransactionId(1);
+        txn1.setAccountId(1);
+        txn1.setAmount(200);
+        txn1.setDebit(false);
+
+        Transaction txn2 = new Transaction();
+        txn2.setTransactionId(2);
+        txn2.setAccountId(1);
+        txn2.setAmount(400);
+        txn2.setDebit(false);
+
+        try (MappedTransactionStore store = new MappedTransactionStore(path)) {
+            TransactionEngine engine = new TransactionEngine(store);
+            engine.addTransactionAndDetectFraud(txn1);
+            engine.addTransactionAndDetectFraud(txn2);
+        }
+
+        try (MappedTransactionStore store = new MappedTransactionStore(path)) {
+            TransactionEngine engine = new TransactionEngine(store);
+            assertEquals(300, engine.getAverageTransactionAmountByAccount(1));
+            assertTrue(engine.transactionHistory.contains(txn1));
+            assertEquals(0, engine.addTransactionAndDetectFraud(txn2));
+            assertEquals(2, store.size());
+        }
+    }
+
+    @Test
+    void testOpen_RejectsForeignFile() throws IOException {
+        Path path = tempDir.resolve("other.bin");
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+
+        assertThrows(IOException.class, () -> new MappedTransactionStore(path));
+    }
+
+    @Test
+    void testOpen_RejectsChunkSizeNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new MappedTransactionStore(tempDir.resolve("history.bin"), 3));
+    }
+}
@@ -0,0 +1,70 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelBacktestTest {
+
+    private static Transaction transaction(int transactionId, int accountId, int amount, boolean isDebit) {
+        Transaction txn = new Transaction();
+        txn.setTransactionId(transactionId);
+        txn.setAccountId(accountId);
+        txn.setAmount(amount);
+        txn.setDebit(isDebit);
+        return txn;
+    }
+
+    @Test
+    void testScore_MatchesSequentialEngine() {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(41), 20_000);
+        int[] expected = new TransactionEngine().addTransactionsAndDetectFraud(transactions);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertArrayEquals(expected, new ParallelBacktest(pool).score(transactions));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testScore_SingleThreadedPool() {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(43), 2_000);
+        int[] expected = new TransactionEngine().addTransactionsAndDetectFraud(transactions);
+
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            assertArrayEquals(expected, new ParallelBacktest(pool).score(transactions));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testScore_CrossAccountPatternAndDuplicates() {
+        List<Transaction> transactions = new ArrayList<>();
+        transactions.add(transaction(1, 1, 1100, false));
+        transactions.add(transaction(2, 2, 1200, false));
+        transactions.add(transaction(2, 3, 5000, true));
+        transactions.add(transaction(3, 3, 1300, false));
+        transactions.add(transaction(4, 4, 1400, false));
+        int[] expected = new TransactionEngine().addTransactionsAndDetectFraud(transactions);
+
+        int[] fraudScores = new ParallelBacktest().score(transactions);
+
+        assertArrayEquals(expected, fraudScores);
+        assertEquals(0, fraudScores[2]);
+        assertEquals(100, fraudScores[4]);
+    }
+
+    @Test
+    void testScore_EmptyDataset() {
+        assertEquals(0, new ParallelBacktest().score(List.of()).length);
+    }
+}
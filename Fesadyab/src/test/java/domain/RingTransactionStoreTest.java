@@ -0,0 +1,56 @@
+package domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingTransactionStoreTest {
+
+    private RingTransactionStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new RingTransactionStore(3);
+    }
+
+    @Test
+    void testAppend_FullRingRejectsAppend() {
+        store.append(1, 1, 100, true);
+        store.append(2, 1, 200, false);
+        store.append(3, 1, 300, true);
+
+        assertEquals(3, store.capacity());
+        assertThrows(IllegalStateException.class, () -> store.append(4, 1, 400, false));
+    }
+
+    @Test
+    void testRemoveFirst_WrapsAround() {
+        for (int i = 0; i < 3; i++) {
+            store.append(i, i, i * 100, true);
+        }
+
+        for (int i = 3; i < 10; i++) {
+            store.removeFirst();
+            store.append(i, i, i * 100, i % 2 == 0);
+        }
+
+        assertEquals(3, store.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(7 + i, store.transactionId(i));
+            assertEquals(7 + i, store.accountId(i));
+            assertEquals((7 + i) * 100, store.amount(i));
+            assertEquals((7 + i) % 2 == 0, store.isDebit(i));
+        }
+    }
+
+    @Test
+    void testRemoveFirst_EmptyRing() {
+        assertThrows(IllegalStateException.class, () -> store.removeFirst());
+    }
+
+    @Test
+    void testConstructor_RejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new RingTransactionStore(0));
+    }
+}
@@ -0,0 +1,223 @@
+package domain;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoringServerTest {
+    private ScoringServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = ScoringServer.start(new TransactionEngine(), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+    }
+
+    private SocketChannel connect() throws IOException {
+        return SocketChannel.open(server.address());
+    }
+
+    private static ByteBuffer frame(List<Transaction> transactions) {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + transactions.size() * TransactionRecord.SIZE);
+        buffer.putInt(transactions.size() * TransactionRecord.SIZE);
+        for (Transaction txn : transactions) {
+            TransactionRecord.write(buffer, txn);
+        }
+        return buffer.flip();
+    }
+
+    private static ByteBuffer readFully(SocketChannel channel, int bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Connection closed after " + buffer.position() + " bytes");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void assertResponse(SocketChannel channel, List<Transaction> transactions, int[] expected) throws IOException {
+        assertEquals(transactions.size() * ScoringServer.SCORE_SIZE, readFully(channel, Integer.BYTES).getInt());
+        ByteBuffer scores = readFully(channel, transactions.size() * ScoringServer.SCORE_SIZE);
+        for (int i = 0; i < transactions.size(); i++) {
+            assertEquals(transactions.get(i).getTransactionId(), scores.getInt());
+            assertEquals(expected[i], scores.getInt());
+        }
+    }
+
+    @Test
+    void testScore_PipelinedFramesMatchEngine() throws IOException {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(73), 3_000);
+        int[] expected = new TransactionEngine().addTransactionsAndDetectFraud(transactions);
+
+        try (SocketChannel channel = connect()) {
+            List<Transaction> first = transactions.subList(0, 1_000);
+            List<Transaction> second = transactions.subList(1_000, transactions.size());
+            channel.write(new ByteBuffer[]{frame(first), frame(second)});
+
+            assertResponse(channel, first, Arrays.copyOfRange(expected, 0, 1_000));
+            assertResponse(channel, second, Arrays.copyOfRange(expected, 1_000, expected.length));
+        }
+    }
+
+    @Test
+    void testScore_FrameLargerThanServerBuffers() throws Exception {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(79), 40_000);
+        int[] expected = new TransactionEngine().addTransactionsAndDetectFraud(transactions);
+
+        try (SocketChannel channel = connect()) {
+            ByteBuffer request = frame(transactions);
+            Thread writer = Thread.ofPlatform().start(() -> {
+                try {
+                    while (request.hasRemaining()) {
+                        channel.write(request);
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+
+            assertResponse(channel, transactions, expected);
+            writer.join();
+        }
+    }
+
+    @Test
+    void testScore_AnswersEverythingSentBeforeShutdownOutput() throws Exception {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(83), 1_000_000);
+        int[] expected = new TransactionEngine().addTransactionsAndDetectFraud(transactions);
+
+        try (SocketChannel channel = SocketChannel.open()) {
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+            channel.connect(server.address());
+            ByteBuffer request = frame(transactions);
+            Thread writer = Thread.ofPlatform().start(() -> {
+                try {
+                    while (request.hasRemaining()) {
+                        channel.write(request);
+                    }
+                    channel.shutdownOutput();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+
+            // Read slowly: with more responses than the socket buffers hold, some are still queued when the server
+            // reaches the end of input
+            ByteBuffer response = ByteBuffer.allocate(Integer.BYTES + transactions.size() * ScoringServer.SCORE_SIZE);
+            while (response.hasRemaining()) {
+                if (channel.read(response.limit(Math.min(response.capacity(), response.position() + 8192))) < 0) {
+                    break;
+                }
+                Thread.sleep(1);
+            }
+            writer.join();
+
+            response.flip();
+            assertEquals(transactions.size() * ScoringServer.SCORE_SIZE, response.getInt());
+            assertEquals(transactions.size() * ScoringServer.SCORE_SIZE, response.remaining());
+            for (int i = 0; i < transactions.size(); i++) {
+                assertEquals(transactions.get(i).getTransactionId(), response.getInt());
+                assertEquals(expected[i], response.getInt());
+            }
+            assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+        }
+    }
+
+    @Test
+    void testScore_EmptyFrame() throws IOException {
+        try (SocketChannel channel = connect()) {
+            channel.write(frame(List.of()));
+
+            assertEquals(0, readFully(channel, Integer.BYTES).getInt());
+        }
+    }
+
+    @Test
+    void testScore_InvalidFrameLengthClosesConnection() throws IOException {
+        try (SocketChannel channel = connect()) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 17));
+
+            assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+        }
+
+        try (SocketChannel channel = connect()) {
+            channel.write(frame(List.of()));
+            assertEquals(0, readFully(channel, Integer.BYTES).getInt());
+        }
+    }
+
+    @Test
+    void testScore_FailingRuleDropsOnlyThatConnection() throws IOException {
+        FraudRule failingRule = new FraudRule() {
+            @Override
+            public int score(TransactionHistory history, int transactionId, int accountId, int amount, boolean isDebit) {
+                if (amount == 13) {
+                    throw new IllegalStateException("rule failed");
+                }
+                return 0;
+            }
+
+            @Override
+            public int cost() {
+                return 1;
+            }
+        };
+        Transaction poison = new Transaction();
+        poison.setTransactionId(1);
+        poison.setAccountId(1);
+        poison.setAmount(13);
+        poison.setDebit(false);
+        Transaction healthy = new Transaction();
+        healthy.setTransactionId(2);
+        healthy.setAccountId(1);
+        healthy.setAmount(100);
+        healthy.setDebit(false);
+
+        try (ScoringServer failingServer = ScoringServer.start(new TransactionEngine(new ColumnarTransactionStore(), List.of(failingRule)),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+             SocketChannel bystander = SocketChannel.open(failingServer.address())) {
+            try (SocketChannel channel = SocketChannel.open(failingServer.address())) {
+                channel.write(frame(List.of(poison)));
+                assertEquals(-1, channel.read(ByteBuffer.allocate(Integer.BYTES + ScoringServer.SCORE_SIZE)));
+            }
+
+            bystander.write(frame(List.of(healthy)));
+            assertResponse(bystander, List.of(healthy), new int[]{0});
+            assertNull(failingServer.getFailure());
+        }
+    }
+
+    @Test
+    void testClose_ReleasesEngine() throws IOException {
+        Transaction txn = new Transaction();
+        txn.setTransactionId(1);
+        txn.setAccountId(1);
+        txn.setAmount(100);
+        txn.setDebit(false);
+
+        try (SocketChannel channel = connect()) {
+            channel.write(frame(List.of(txn)));
+            assertResponse(channel, List.of(txn), new int[]{0});
+        }
+        server.close();
+
+        assertTrue(server.getEngine().transactionHistory.contains(txn));
+    }
+}
@@ -0,0 +1,96 @@
+package domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThresholdPatternDetectorTest {
+
+    private ThresholdPatternDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        detector = new ThresholdPatternDetector(1000);
+    }
+
+    @Test
+    void testPattern_NoTransactions() {
+        assertEquals(0, detector.pattern());
+    }
+
+    @Test
+    void testPattern_FirstTransactionIsBaseline() {
+        detector.accept(1, 500);
+        detector.accept(2, 1000);
+        detector.accept(3, 1500);
+
+        assertEquals(1000, detector.pattern());
+    }
+
+    @Test
+    void testPattern_BrokenPatternStaysBroken() {
+        detector.accept(1, 1200);
+        detector.accept(2, 1500);
+        detector.accept(3, 1900);
+
+        assertEquals(0, detector.pattern());
+
+        detector.accept(4, 1800);
+        assertEquals(0, detector.pattern());
+    }
+
+    @Test
+    void testPattern_MatchesScan() {
+        ColumnarTransactionStore store = new ColumnarTransactionStore();
+        int[] amounts = {1200, 300, 1500, 900, 1800, 1800};
+        for (int i = 0; i < amounts.length; i++) {
+            store.append(i, 1, amounts[i], true);
+            detector.accept(i, amounts[i]);
+        }
+
+        ThresholdPatternDetector scanned = new ThresholdPatternDetector(1000);
+        scanned.scan(store);
+
+        assertEquals(300, detector.pattern());
+        assertEquals(detector.pattern(), scanned.pattern());
+    }
+
+    @Test
+    void testGetPatternAboveThreshold_HistoryTracksIncrementally() {
+        TransactionHistory history = new TransactionHistory();
+        history.store.append(1, 1, 1200, true);
+        assertEquals(0, history.getPatternAboveThreshold(1000));
+
+        WindowedPatternDetector tracked = history.patternDetector(1000);
+        Transaction txn = new Transaction();
+        txn.setTransactionId(2);
+        txn.setAccountId(1);
+        txn.setAmount(1500);
+        history.add(txn);
+
+        assertEquals(300, history.getPatternAboveThreshold(1000));
+        assertSame(tracked, history.patternDetector(1000));
+        assertEquals(0, history.getPatternAboveThreshold(2000));
+    }
+
+    @Test
+    void testGetPatternAboveThreshold_AlternatingThresholdsKeepTheirDetectors() {
+        TransactionHistory history = new TransactionHistory();
+        history.append(1, 1, 1200, true);
+        assertEquals(0, history.getPatternAboveThreshold(1000));
+        assertEquals(0, history.getPatternAboveThreshold(1300));
+
+        WindowedPatternDetector low = history.patternDetector(1000);
+        WindowedPatternDetector high = history.patternDetector(1300);
+        history.append(2, 1, 1500, true);
+        history.append(3, 1, 1800, true);
+
+        assertEquals(300, history.getPatternAboveThreshold(1000));
+        assertEquals(300, history.getPatternAboveThreshold(1300));
+        assertEquals(300, history.getPatternAboveThreshold(1000));
+        assertSame(low, history.patternDetector(1000));
+        assertSame(high, history.patternDetector(1300));
+        assertEquals(2, history.patternDetectors.length);
+    }
+}
@@ -0,0 +1,281 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredTransactionStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAppend_CompactsOlderHalfIntoSegment() throws IOException {
+        try (TieredTransactionStore store = new TieredTransactionStore(tempDir, 4, 16)) {
+            for (int i = 0; i < 10; i++) {
+                store.append(i, i % 3, i * 100, i % 2 == 0);
+            }
+
+            assertEquals(10, store.size());
+            assertEquals(4, store.segmentCount());
+            assertEquals(2, store.hotSize());
+            for (int i = 0; i < 10; i++) {
+                assertEquals(i, store.transactionId(i));
+                assertEquals(i % 3, store.accountId(i));
+                assertEquals(i * 100, store.amount(i));
+                assertEquals(i % 2 == 0, store.isDebit(i));
+            }
+        }
+    }
+
+    @Test
+    void testAverageAmount_CombinesColdAndHotTiers() throws IOException {
+        try (TieredTransactionStore store = new TieredTransactionStore(tempDir, 4, 16)) {
+            store.append(1, 10, 100, false);
+            store.append(2, 20, 1000, false);
+            assertEquals(100, store.averageAmount(10));
+
+            store.append(3, 10, 300, false);
+            store.append(4, 10, 500, false);
+            store.append(5, 10, 700, false);
+
+            assertEquals(1, store.segmentCount());
+            assertEquals(400, store.averageAmount(10));
+            assertEquals(1000, store.averageAmount(20));
+            assertEquals(0, store.averageAmount(30));
+        }
+    }
+
+    @Test
+    void testClose_ReopenServesFullHistory() throws IOException {
+        try (TieredTransactionStore store = new TieredTransactionStore(tempDir, 4, 16)) {
+            for (int i = 0; i < 7; i++) {
+                store.append(i, 1, i * 100, true);
+            }
+        }
+
+        try (TieredTransactionStore store = new TieredTransactionStore(tempDir, 4, 16)) {
+            assertEquals(7, store.size());
+            assertEquals(0, store.hotSize());
+            assertEquals(300, store.averageAmount(1));
+
+            store.append(7, 1, 700, false);
+            assertEquals(8, store.size());
+            assertEquals(6, store.transactionId(6));
+            assertEquals(7, store.transactionId(7));
+        }
+    }
+
+    @Test
+    void testOpen_DiscardsUnfinishedCompaction() throws IOException {
+        Files.write(tempDir.resolve("segment-0000000000.seg.tmp"), new byte[10]);
+
+        try (TieredTransactionStore store = new TieredTransactionStore(tempDir, 4, 16)) {
+            assertEquals(0, store.size());
+        }
+        assertFalse(Files.exists(tempDir.resolve("segment-0000000000.seg.tmp")));
+    }
+
+    @Test
+    void testOpen_RejectsMissingSegment() throws IOException {
+        try (TieredTransactionStore store = new TieredTransactionStore(tempDir, 4, 16)) {
+            for (int i = 0; i < 6; i++) {
+                store.append(i, 1, 100, true);
+            }
+        }
+        Files.delete(tempDir.resolve("segment-0000000000.seg"));
+
+        assertThrows(IOException.class, () -> new TieredTransactionStore(tempDir, 4, 16));
+    }
+
+    @Test
+    void testCompact_MergesIndexesIntoOneTotalsFile() throws IOException {
+        try (TieredTransactionStore store = new TieredTransactionStore(tempDir, 4, 16)) {
+            for (int i = 0; i < 40; i++) {
+                store.append(i, i % 5, i * 10, true);
+            }
+            assertTrue(store.segmentCount() > 10);
+            assertEquals(List.of("totals-0000000038.idx"), totalsFiles());
+        }
+
+        try (TieredTransactionStore store = new TieredTransactionStore(tempDir, 4, 16)) {
+            for (int accountId = 0; accountId < 5; accountId++) {
+                assertEquals(175 + accountId * 10, store.averageAmount(accountId));
+            }
+        }
+    }
+
+    @Test
+    void testOpen_CatchesUpTotalsLeftBehindByACrash() throws IOException {
+        Path stale = tempDir.resolve("stale");
+        try (TieredTransactionStore store = new TieredTransactionStore(tempDir, 4, 16)) {
+            for (int i = 0; i < 6; i++) {
+                store.append(i, i % 2, i * 100, true);
+            }
+            Files.copy(tempDir.resolve("totals-0000000004.idx"), stale);
+        }
+
+        // As if the process died after writing the last segment but before replacing the totals
+        Files.delete(tempDir.resolve(totalsFiles().get(0)));
+        Files.move(stale, tempDir.resolve("totals-0000000004.idx"));
+        Files.write(tempDir.resolve("totals-0000000009.idx.tmp"), new byte[10]);
+
+        try (TieredTransactionStore store = new TieredTransactionStore(tempDir, 4, 16)) {
+            assertEquals(200, store.averageAmount(0));
+            assertEquals(300, store.averageAmount(1));
+            assertEquals(List.of("totals-0000000006.idx"), totalsFiles());
+        }
+    }
+
+    @Test
+    void testAverageAmount_CacheKeepsRecentlyReadAccounts() throws IOException {
+        try (TieredTransactionStore store = new TieredTransactionStore(tempDir, 4, 2)) {
+            for (int i = 0; i < 6; i++) {
+                store.append(i, i % 3 + 1, 100, true);
+            }
+            store.flush();
+
+            store.averageAmount(1);
+            store.averageAmount(2);
+            store.averageAmount(1);
+            store.averageAmount(3);
+
+            // 1 was read again since it was cached, so the clock passes over it and evicts 2
+            assertTrue(store.coldTotals.contains(1));
+            assertFalse(store.coldTotals.contains(2));
+            assertTrue(store.coldTotals.contains(3));
+        }
+    }
+
+    @Test
+    void testEngine_MatchesInMemoryEngine() throws IOException {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(107), 2_000);
+        TransactionEngine expected = new TransactionEngine();
+
+        // A cache smaller than the account count forces cold index reads along the way
+        try (TieredTransactionStore store = new TieredTransactionStore(tempDir, 64, 4)) {
+            TransactionEngine engine = new TransactionEngine(store, store.accountStatistics(), TransactionEngine.defaultRules());
+            for (Transaction txn : transactions) {
+                assertEquals(expected.addTransactionAndDetectFraud(txn), engine.addTransactionAndDetectFraud(txn));
+            }
+
+            assertTrue(store.segmentCount() > 1);
+            assertTrue(store.hotSize() < 64);
+            for (int accountId = 0; accountId < 20; accountId++) {
+                assertEquals(expected.getAverageTransactionAmountByAccount(accountId), engine.getAverageTransactionAmountByAccount(accountId));
+            }
+        }
+    }
+
+    @Test
+    void testAccountStatistics_RemoveAdjustsBaselinesAcrossTiers() throws IOException {
+        try (TieredTransactionStore store = new TieredTransactionStore(tempDir, 4, 16)) {
+            AccountStatistics statistics = store.accountStatistics();
+            TransactionHistory history = new TransactionHistory(store, statistics);
+            history.append(1, 10, 100, false);
+            history.append(2, 10, 300, false);
+            history.append(3, 10, 500, false);
+            history.append(4, 10, 700, false);
+            assertEquals(1, store.segmentCount());
+
+            // 100 and 300 are cold, 500 is hot
+            statistics.remove(10, 100);
+            assertEquals(500, statistics.average(10));
+            statistics.remove(10, 300);
+            statistics.remove(10, 500);
+            assertEquals(700, statistics.average(10));
+
+            // The store itself still reports the full history
+            assertEquals(400, store.averageAmount(10));
+            history.append(5, 10, 1000, false);
+            assertEquals(850, statistics.average(10));
+        }
+    }
+
+    @Test
+    void testAccountStatistics_RejectsCallsOutOfStepWithTheStore() throws IOException {
+        try (TieredTransactionStore store = new TieredTransactionStore(tempDir, 4, 16)) {
+            AccountStatistics statistics = store.accountStatistics();
+            assertSame(statistics, store.accountStatistics());
+            store.append(1, 10, 100, false);
+            store.append(2, 10, 300, false);
+
+            assertThrows(IllegalStateException.class, () -> statistics.add(10, 300));
+            assertThrows(IllegalStateException.class, () -> statistics.remove(10, 100));
+            statistics.add(10, 100);
+            statistics.add(10, 300);
+            assertThrows(IllegalStateException.class, () -> statistics.add(10, 300));
+
+            // Only the oldest transaction can leave, and only once
+            assertThrows(IllegalStateException.class, () -> statistics.remove(10, 300));
+            statistics.remove(10, 100);
+            assertThrows(IllegalStateException.class, () -> statistics.remove(10, 100));
+            assertEquals(300, statistics.average(10));
+
+            // A second history would index the store's transactions again
+            assertThrows(IllegalStateException.class, () -> new TransactionHistory(store, store.accountStatistics()));
+        }
+    }
+
+    @Test
+    void testAccountStatistics_RemovalsSurviveReopen() throws IOException {
+        try (TieredTransactionStore store = new TieredTransactionStore(tempDir, 4, 16)) {
+            AccountStatistics statistics = store.accountStatistics();
+            TransactionHistory history = new TransactionHistory(store, statistics);
+            for (int i = 1; i <= 4; i++) {
+                history.append(i, 10, i * 100, false);
+            }
+            statistics.remove(10, 100);
+            statistics.remove(10, 200);
+            statistics.remove(10, 300);
+            assertEquals(List.of(), removedFiles());
+
+            // The next compaction writes out the removals it made cold
+            history.append(5, 10, 500, false);
+            history.append(6, 10, 600, false);
+            assertEquals(List.of("removed-0000000003.idx"), removedFiles());
+            statistics.remove(10, 400);
+            statistics.remove(10, 500);
+        }
+        assertEquals(List.of("removed-0000000005.idx"), removedFiles());
+
+        try (TieredTransactionStore store = new TieredTransactionStore(tempDir, 4, 16)) {
+            AccountStatistics statistics = store.accountStatistics();
+            TransactionHistory history = new TransactionHistory(store, statistics);
+            assertEquals(600, statistics.average(10));
+
+            history.append(7, 10, 1000, false);
+            assertEquals(800, statistics.average(10));
+            statistics.remove(10, 600);
+            assertEquals(1000, statistics.average(10));
+        }
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new TieredTransactionStore(tempDir, 1, 16));
+        assertThrows(IllegalArgumentException.class, () -> new TieredTransactionStore(tempDir, 4, 0));
+    }
+
+    private List<String> totalsFiles() throws IOException {
+        return files("totals-");
+    }
+
+    private List<String> removedFiles() throws IOException {
+        return files("removed-");
+    }
+
+    private List<String> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.map(path -> path.getFileName().toString()).filter(name -> name.startsWith(prefix)).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionEngineSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRestoreSnapshot_ContinuesLikeTheOriginalEngine() throws IOException {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(13), 4_000);
+        TransactionEngine original = new TransactionEngine();
+        original.addTransactionsAndDetectFraud(transactions.subList(0, 2_000));
+
+        Path path = tempDir.resolve("engine.snapshot");
+        TransactionEngineSnapshot.write(original.transactionHistory, path, 64);
+        TransactionEngine restored = new TransactionEngine(TransactionEngineSnapshot.read(path, 64), TransactionEngine.defaultRules());
+
+        assertEquals(original.transactionHistory.size(), restored.transactionHistory.size());
+        for (int accountId = 0; accountId < 20; accountId++) {
+            assertEquals(original.getAverageTransactionAmountByAccount(accountId), restored.getAverageTransactionAmountByAccount(accountId));
+        }
+        for (Transaction txn : transactions.subList(2_000, transactions.size())) {
+            assertEquals(original.addTransactionAndDetectFraud(txn), restored.addTransactionAndDetectFraud(txn));
+        }
+    }
+
+    @Test
+    void testRestoreSnapshot_KeepsPatternState() throws IOException {
+        TransactionEngine original = new TransactionEngine();
+        original.addTransactionAndDetectFraud(1, 1, 1200, false);
+        original.addTransactionAndDetectFraud(2, 1, 1500, false);
+
+        Path path = tempDir.resolve("engine.snapshot");
+        original.writeSnapshot(path);
+        TransactionEngine restored = TransactionEngine.restoreSnapshot(path);
+
+        assertEquals(1, restored.transactionHistory.patternDetectors.length);
+        assertEquals(300, restored.getTransactionPatternAboveThreshold(1000));
+        assertEquals(1200, restored.transactionHistory.getFirst().getAmount());
+        assertEquals(0, restored.addTransactionAndDetectFraud(2, 1, 1500, false));
+    }
+
+    @Test
+    void testRestoreSnapshot_WindowedHistoryStaysBounded() throws IOException {
+        TransactionEngine original = new TransactionEngine(new RingTransactionStore(4));
+        for (int i = 0; i < 10; i++) {
+            original.addTransactionAndDetectFraud(i, i % 2, 100 * (i + 1), i % 3 == 0);
+        }
+
+        Path path = tempDir.resolve("engine.snapshot");
+        original.writeSnapshot(path);
+        TransactionEngine restored = TransactionEngine.restoreSnapshot(path);
+
+        assertEquals(4, restored.transactionHistory.capacity());
+        assertEquals(4, restored.transactionHistory.size());
+        assertEquals(6, restored.transactionHistory.getFirst().getTransactionId());
+        assertEquals(original.addTransactionAndDetectFraud(10, 0, 5000, true), restored.addTransactionAndDetectFraud(10, 0, 5000, true));
+        assertEquals(4, restored.transactionHistory.size());
+    }
+
+    @Test
+    void testRestoreSnapshot_RejectsForeignFile() throws IOException {
+        Path path = tempDir.resolve("other.bin");
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThrows(IOException.class, () -> TransactionEngine.restoreSnapshot(path));
+    }
+
+    @Test
+    void testRestoreSnapshot_RejectsTruncatedFile() throws IOException {
+        TransactionEngine original = new TransactionEngine();
+        original.addTransactionAndDetectFraud(1, 1, 100, true);
+        Path path = tempDir.resolve("engine.snapshot");
+        original.writeSnapshot(path);
+
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertThrows(IOException.class, () -> TransactionEngine.restoreSnapshot(path));
+    }
+
+    @Test
+    void testRestoreSnapshot_KeepsListStore() throws IOException {
+        TransactionEngine original = new TransactionEngine(new ListTransactionStore());
+        original.addTransactionAndDetectFraud(1, 1, 1200, false);
+        original.addTransactionAndDetectFraud(2, 2, 1500, true);
+
+        Path path = tempDir.resolve("engine.snapshot");
+        original.writeSnapshot(path);
+        TransactionEngine restored = TransactionEngine.restoreSnapshot(path);
+
+        assertInstanceOf(ListTransactionStore.class, restored.transactionHistory.store);
+        assertEquals(2, restored.transactionHistory.size());
+        assertEquals(1500, restored.transactionHistory.store.amount(1));
+        assertTrue(restored.transactionHistory.store.isDebit(1));
+    }
+
+    @Test
+    void testWriteSnapshot_RejectsFileBackedStoreUpFront() throws IOException {
+        Path path = tempDir.resolve("engine.snapshot");
+        try (MappedTransactionStore store = new MappedTransactionStore(tempDir.resolve("transactions.bin"))) {
+            TransactionEngine engine = new TransactionEngine(store);
+            engine.addTransactionAndDetectFraud(1, 1, 100, true);
+
+            assertThrows(IOException.class, () -> engine.writeSnapshot(path));
+        }
+
+        assertFalse(Files.exists(path));
+        assertFalse(Files.exists(tempDir.resolve("engine.snapshot.tmp")));
+    }
+}
@@ -3,6 +3,11 @@ package domain;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class TransactionEngineTest {
@@ -290,4 +295,181 @@ class TransactionEngineTest {
         int result = transactionEngine.getTransactionPatternAboveThreshold(1000);
         assertEquals(1000, result);
     }
+
+    @Test
+    void testAddTransactionAndDetectFraud_ListStoreMatchesColumnarStore() {
+        TransactionEngine listEngine = new TransactionEngine(new ListTransactionStore());
+        int[] amounts = {200, 400, 1800, 1200, 1500, 1800, 300, 5000};
+
+        for (int i = 0; i < amounts.length; i++) {
+            Transaction txn = new Transaction();
+            txn.setTransactionId(i);
+            txn.setAccountId(i % 2);
+            txn.setAmount(amounts[i]);
+            txn.setDebit(i % 3 != 1);
+
+            assertEquals(transactionEngine.addTransactionAndDetectFraud(txn), listEngine.addTransactionAndDetectFraud(txn));
+        }
+        assertEquals(amounts.length, listEngine.transactionHistory.size());
+    }
+
+    @Test
+    void testAddTransactionsAndDetectFraud_MatchesSequentialCalls() {
+        List<Transaction> transactions = randomTransactions(new Random(7), 2_000);
+        TransactionEngine sequentialEngine = new TransactionEngine();
+
+        int[] expected = new int[transactions.size()];
+        for (int i = 0; i < transactions.size(); i++) {
+            expected[i] = sequentialEngine.addTransactionAndDetectFraud(transactions.get(i));
+        }
+
+        int[] first = transactionEngine.addTransactionsAndDetectFraud(transactions.subList(0, 500));
+        int[] second = transactionEngine.addTransactionsAndDetectFraud(transactions.subList(500, transactions.size()).stream());
+
+        int[] actual = new int[transactions.size()];
+        System.arraycopy(first, 0, actual, 0, first.length);
+        System.arraycopy(second, 0, actual, first.length, second.length);
+        assertArrayEquals(expected, actual);
+        assertEquals(sequentialEngine.transactionHistory.size(), transactionEngine.transactionHistory.size());
+    }
+
+    @Test
+    void testAddTransactionsAndDetectFraud_DuplicateInsideBatch() {
+        Transaction txn1 = new Transaction();
+        txn1.setTransactionId(1);
+        txn1.setAccountId(100);
+        txn1.setAmount(1200);
+        txn1.setDebit(true);
+
+        Transaction txn2 = new Transaction();
+        txn2.setTransactionId(2);
+        txn2.setAccountId(100);
+        txn2.setAmount(1500);
+        txn2.setDebit(false);
+
+        Transaction txn3 = new Transaction();
+        txn3.setTransactionId(3);
+        txn3.setAccountId(100);
+        txn3.setAmount(1800);
+        txn3.setDebit(false);
+
+        int[] result = transactionEngine.addTransactionsAndDetectFraud(new Transaction[]{txn1, txn2, txn1, txn3});
+        assertArrayEquals(new int[]{1200, 0, 0, 300}, result);
+        assertEquals(3, transactionEngine.transactionHistory.size());
+    }
+
+    @Test
+    void testAddTransactionAndDetectFraud_WindowedHistoryScoresOnlyTheWindow() {
+        int window = 16;
+        TransactionEngine windowedEngine = new TransactionEngine(new RingTransactionStore(window));
+        List<Transaction> accepted = new ArrayList<>();
+
+        for (Transaction txn : randomTransactions(new Random(5), 500)) {
+            TransactionEngine referenceEngine = new TransactionEngine(new ListTransactionStore());
+            for (Transaction previous : accepted.subList(Math.max(0, accepted.size() - window), accepted.size())) {
+                referenceEngine.transactionHistory.add(previous);
+            }
+
+            int expected = referenceEngine.addTransactionAndDetectFraud(txn);
+            assertEquals(expected, windowedEngine.addTransactionAndDetectFraud(txn));
+            if (referenceEngine.transactionHistory.size() > Math.min(accepted.size(), window)) {
+                accepted.add(txn);
+            }
+        }
+
+        assertEquals(window, windowedEngine.transactionHistory.size());
+        assertEquals(window, windowedEngine.transactionHistory.transactionIds.size());
+    }
+
+    @Test
+    void testAddTransactionsAndDetectFraud_WindowedHistoryKeepsIdSetToWindow() {
+        TransactionEngine windowedEngine = new TransactionEngine(new RingTransactionStore(16));
+
+        windowedEngine.addTransactionsAndDetectFraud(randomTransactions(new Random(7), 10_000));
+
+        // The batch hint is capped at the window instead of sizing the id set for the whole batch
+        assertEquals(new IntHashSet(16).keys.length, windowedEngine.transactionHistory.transactionIds.keys.length);
+    }
+
+    @Test
+    void testAddTransactionAndDetectFraud_EvictedTransactionIsAcceptedAgain() {
+        TransactionEngine windowedEngine = new TransactionEngine(new RingTransactionStore(2));
+        Transaction txn1 = new Transaction();
+        txn1.setTransactionId(1);
+        txn1.setAccountId(1);
+        txn1.setAmount(100);
+        txn1.setDebit(false);
+
+        Transaction txn2 = new Transaction();
+        txn2.setTransactionId(2);
+        txn2.setAccountId(1);
+        txn2.setAmount(200);
+        txn2.setDebit(false);
+
+        Transaction txn3 = new Transaction();
+        txn3.setTransactionId(3);
+        txn3.setAccountId(1);
+        txn3.setAmount(400);
+        txn3.setDebit(false);
+
+        windowedEngine.addTransactionAndDetectFraud(txn1);
+        windowedEngine.addTransactionAndDetectFraud(txn2);
+        windowedEngine.addTransactionAndDetectFraud(txn3);
+
+        assertEquals(300, windowedEngine.getAverageTransactionAmountByAccount(1));
+        assertFalse(windowedEngine.transactionHistory.contains(txn1));
+        assertEquals(0, windowedEngine.addTransactionAndDetectFraud(txn1));
+        assertEquals(250, windowedEngine.getAverageTransactionAmountByAccount(1));
+        assertTrue(windowedEngine.transactionHistory.contains(txn1));
+    }
+
+    @Test
+    void testAddTransactionAndDetectFraud_PrimitiveMatchesObjectPath() {
+        List<Transaction> transactions = randomTransactions(new Random(59), 2_000);
+        TransactionEngine objectEngine = new TransactionEngine();
+
+        for (Transaction txn : transactions) {
+            assertEquals(objectEngine.addTransactionAndDetectFraud(txn), transactionEngine.addTransactionAndDetectFraud(
+                    txn.getTransactionId(), txn.getAccountId(), txn.getAmount(), txn.isDebit()));
+        }
+        assertEquals(objectEngine.transactionHistory.size(), transactionEngine.transactionHistory.size());
+    }
+
+    @Test
+    void testAddTransactionAndDetectFraud_PrimitiveDoesNotAllocate() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        int count = 100_000;
+        transactionEngine.transactionHistory.ensureCapacity(2 * count);
+        for (int i = 0; i < count; i++) {
+            transactionEngine.addTransactionAndDetectFraud(i, i % 20, 1 + i % 3000, i % 2 == 0);
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = count; i < 2 * count; i++) {
+            transactionEngine.addTransactionAndDetectFraud(i, i % 20, 1 + i % 3000, i % 2 == 0);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // A single allocation per call would be at least 1.6 MB here; allow for the measurement call itself
+        assertTrue(allocated < 4_096, "allocated " + allocated + " bytes");
+    }
+
+    static List<Transaction> randomTransactions(Random random, int count) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Transaction txn = new Transaction();
+            txn.setTransactionId(random.nextInt(count));
+            txn.setAccountId(random.nextInt(20));
+            txn.setAmount(random.nextInt(4) == 0 ? 1000 + 100 * (i % 5) : random.nextInt(3000));
+            txn.setDebit(random.nextBoolean());
+            transactions.add(txn);
+        }
+        return transactions;
+    }
 }
@@ -0,0 +1,103 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionIngestionPipelineTest {
+
+    @Test
+    void testPublish_SingleProducerMatchesSequentialEngine() {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(3), 5_000);
+        TransactionEngine sequentialEngine = new TransactionEngine();
+        int[] expected = new int[transactions.size()];
+        for (int i = 0; i < transactions.size(); i++) {
+            expected[i] = sequentialEngine.addTransactionAndDetectFraud(transactions.get(i));
+        }
+
+        int[] actual = new int[transactions.size()];
+        try (TransactionIngestionPipeline pipeline = new TransactionIngestionPipeline(
+                new TransactionEngine(), 64, (sequence, transactionId, fraudScore) -> actual[(int) sequence] = fraudScore).start()) {
+            for (Transaction txn : transactions) {
+                pipeline.publish(txn);
+            }
+        }
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void testPublish_MultipleProducers() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 10_000;
+        TransactionEngine engine = new TransactionEngine();
+        AtomicInteger published = new AtomicInteger();
+        boolean[] seen = new boolean[producers * perProducer];
+
+        TransactionIngestionPipeline pipeline = new TransactionIngestionPipeline(engine, 128, (sequence, transactionId, fraudScore) -> {
+            assertFalse(seen[(int) sequence]);
+            seen[(int) sequence] = true;
+            published.incrementAndGet();
+        }).start();
+
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    pipeline.publish(producer * perProducer + i, producer, 100, false);
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        pipeline.close();
+
+        assertEquals(producers * perProducer, published.get());
+        assertEquals(producers * perProducer, engine.transactionHistory.size());
+        assertEquals(100, engine.getAverageTransactionAmountByAccount(2));
+    }
+
+    @Test
+    void testPublish_RejectedAfterClose() {
+        TransactionIngestionPipeline pipeline = new TransactionIngestionPipeline(new TransactionEngine(), 8, (sequence, transactionId, fraudScore) -> {
+        }).start();
+        pipeline.close();
+
+        assertThrows(IllegalStateException.class, () -> pipeline.publish(1, 1, 1, true));
+    }
+
+    @Test
+    void testPublish_FailsFastAfterHandlerThrows() {
+        RuntimeException boom = new RuntimeException("handler failed");
+        TransactionIngestionPipeline pipeline = new TransactionIngestionPipeline(new TransactionEngine(), 8, (sequence, transactionId, fraudScore) -> {
+            if (sequence == 2) {
+                throw boom;
+            }
+        }).start();
+
+        // The ring fills up behind the dead publishing stage; publish must give up instead of spinning forever
+        IllegalStateException published = assertThrows(IllegalStateException.class, () -> {
+            for (int i = 0; i < 100; i++) {
+                pipeline.publish(i, 1, 100, false);
+            }
+        });
+        assertSame(boom, published.getCause());
+        assertSame(boom, pipeline.getFailure());
+
+        IllegalStateException closed = assertThrows(IllegalStateException.class, pipeline::close);
+        assertSame(boom, closed.getCause());
+    }
+
+    @Test
+    void testConstructor_RejectsBufferSizeNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new TransactionIngestionPipeline(new TransactionEngine(), 100, (sequence, transactionId, fraudScore) -> {
+        }));
+    }
+}
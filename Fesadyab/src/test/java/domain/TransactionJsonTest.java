@@ -0,0 +1,72 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionJsonTest {
+
+    @Test
+    void testParseTransaction_AllFields() {
+        Transaction txn = TransactionJson.parseTransaction(
+                " {\"transactionId\": 1, \"accountId\": -2, \"amount\": 300, \"isDebit\": true} ");
+
+        assertEquals(1, txn.getTransactionId());
+        assertEquals(-2, txn.getAccountId());
+        assertEquals(300, txn.getAmount());
+        assertTrue(txn.isDebit());
+    }
+
+    @Test
+    void testParseTransaction_BeanPropertyNameAndUnknownFields() {
+        Transaction txn = TransactionJson.parseTransaction("{\"note\":\"a \\\"b\\\" \\u00e9\",\"tags\":[1,{\"x\":null}],"
+                + "\"transactionId\":5,\"accountId\":6,\"amount\":7,\"debit\":false}");
+
+        assertEquals(5, txn.getTransactionId());
+        assertFalse(txn.isDebit());
+    }
+
+    @Test
+    void testParseTransactions_Array() {
+        List<Transaction> transactions = TransactionJson.parseTransactions(
+                "[{\"transactionId\":1,\"accountId\":1,\"amount\":10,\"isDebit\":false},"
+                        + "{\"transactionId\":2,\"accountId\":1,\"amount\":20,\"isDebit\":true}]");
+
+        assertEquals(2, transactions.size());
+        assertEquals(20, transactions.get(1).getAmount());
+        assertTrue(TransactionJson.parseTransactions(" [ ] ").isEmpty());
+    }
+
+    @Test
+    void testParseTransaction_RejectsMalformedInput() {
+        assertThrows(IllegalArgumentException.class, () -> TransactionJson.parseTransaction("{\"transactionId\":1}"));
+        assertThrows(IllegalArgumentException.class, () -> TransactionJson.parseTransaction(
+                "{\"transactionId\":1,\"accountId\":1,\"amount\":1.5,\"isDebit\":true}"));
+        assertThrows(IllegalArgumentException.class, () -> TransactionJson.parseTransaction(
+                "{\"transactionId\":99999999999,\"accountId\":1,\"amount\":1,\"isDebit\":true}"));
+        assertThrows(IllegalArgumentException.class, () -> TransactionJson.parseTransaction(
+                "{\"transactionId\":1,\"accountId\":1,\"amount\":1,\"isDebit\":true} x"));
+        assertThrows(IllegalArgumentException.class, () -> TransactionJson.parseTransactions("[{\"transactionId\":1"));
+        // Non-ASCII digits that Integer.parseInt would otherwise accept
+        assertThrows(IllegalArgumentException.class, () -> TransactionJson.parseTransaction(
+                "{\"transactionId\":1,\"accountId\":1,\"amount\":\u0661\u0662,\"isDebit\":true}"));
+    }
+
+    @Test
+    void testParseTransaction_RejectsDeepNestingInUnknownFields() {
+        String nested = "[".repeat(100_000) + "]".repeat(100_000);
+
+        assertThrows(IllegalArgumentException.class, () -> TransactionJson.parseTransaction(
+                "{\"extra\":" + nested + ",\"transactionId\":1,\"accountId\":1,\"amount\":1,\"isDebit\":true}"));
+        assertEquals(1, TransactionJson.parseTransaction("{\"extra\":" + "[".repeat(TransactionJson.MAX_DEPTH)
+                + "]".repeat(TransactionJson.MAX_DEPTH) + ",\"transactionId\":1,\"accountId\":1,\"amount\":1,\"isDebit\":true}")
+                .getTransactionId());
+    }
+
+    @Test
+    void testError_EscapesMessage() {
+        assertEquals("{\"error\":\"bad \\\"x\\\"\\u000a\"}", TransactionJson.error("bad \"x\"\n"));
+    }
+}
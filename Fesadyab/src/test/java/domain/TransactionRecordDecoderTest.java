@@ -0,0 +1,93 @@
+package domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionRecordDecoderTest {
+    private TransactionEngine engine;
+    private TransactionRecordDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        engine = new TransactionEngine();
+        decoder = new TransactionRecordDecoder(engine);
+    }
+
+    private static ByteBuffer encode(List<Transaction> transactions, ByteBuffer buffer) {
+        for (Transaction txn : transactions) {
+            TransactionRecord.write(buffer, txn);
+        }
+        return buffer.flip();
+    }
+
+    @Test
+    void testDecode_MatchesObjectPath() {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(23), 2_000);
+        int[] expected = new TransactionEngine().addTransactionsAndDetectFraud(transactions);
+
+        for (ByteBuffer buffer : List.of(ByteBuffer.allocate(transactions.size() * TransactionRecord.SIZE),
+                ByteBuffer.allocateDirect(transactions.size() * TransactionRecord.SIZE))) {
+            setUp();
+            int[] fraudScores = new int[transactions.size()];
+
+            assertEquals(transactions.size(), decoder.decode(encode(transactions, buffer), fraudScores));
+            assertArrayEquals(expected, fraudScores);
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    void testDecode_LeavesPartialRecordInBuffer() {
+        Transaction txn = new Transaction();
+        txn.setTransactionId(7);
+        txn.setAccountId(1);
+        txn.setAmount(400);
+        txn.setDebit(true);
+
+        ByteBuffer buffer = ByteBuffer.allocate(TransactionRecord.SIZE + 6);
+        TransactionRecord.write(buffer, txn);
+        buffer.putShort((short) 1).putInt(2).flip();
+
+        List<int[]> scores = new ArrayList<>();
+        int records = decoder.decode(buffer, (transactionId, fraudScore) -> scores.add(new int[]{transactionId, fraudScore}));
+
+        assertEquals(1, records);
+        assertEquals(TransactionRecord.SIZE, buffer.position());
+        assertEquals(6, buffer.remaining());
+        assertArrayEquals(new int[]{7, 400}, scores.getFirst());
+        assertEquals(1, engine.transactionHistory.size());
+    }
+
+    @Test
+    void testDecode_IgnoresCallerByteOrder() {
+        Transaction txn = new Transaction();
+        txn.setTransactionId(1);
+        txn.setAccountId(3);
+        txn.setAmount(250);
+        txn.setDebit(false);
+
+        ByteBuffer buffer = encode(List.of(txn), ByteBuffer.allocate(TransactionRecord.SIZE));
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        assertEquals(1, decoder.decode(buffer, new int[1]));
+        assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.order());
+        assertEquals(250, engine.getAverageTransactionAmountByAccount(3));
+    }
+
+    @Test
+    void testDecode_StopsWhenScoreArrayIsFull() {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(29), 10);
+        ByteBuffer buffer = encode(transactions, ByteBuffer.allocate(10 * TransactionRecord.SIZE));
+
+        assertEquals(4, decoder.decode(buffer, new int[4]));
+        assertEquals(6 * TransactionRecord.SIZE, buffer.remaining());
+    }
+}
@@ -0,0 +1,97 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionReplayTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String expectedScores(List<Transaction> transactions) {
+        TransactionEngine engine = new TransactionEngine();
+        StringBuilder expected = new StringBuilder();
+        for (Transaction txn : transactions) {
+            expected.append(txn.getTransactionId()).append(',').append(engine.addTransactionAndDetectFraud(txn)).append('\n');
+        }
+        return expected.toString();
+    }
+
+    @Test
+    void testReplay_CsvAcrossMappingWindows() throws IOException {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(31), 500);
+        StringBuilder csv = new StringBuilder("transactionId,accountId,amount,isDebit\r\n");
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction txn = transactions.get(i);
+            String debit = i % 2 == 0 ? String.valueOf(txn.isDebit()) : (txn.isDebit() ? "1" : "0");
+            csv.append(txn.getTransactionId()).append(',').append(txn.getAccountId()).append(',')
+                    .append(txn.getAmount()).append(',').append(debit);
+            if (i < transactions.size() - 1) {
+                csv.append(i % 3 == 0 ? "\r\n" : "\n");
+            }
+        }
+        Path input = tempDir.resolve("history.csv");
+        Path output = tempDir.resolve("scores.csv");
+        Files.writeString(input, csv);
+
+        long records = TransactionReplay.replay(input, TransactionReplay.Format.CSV, new TransactionEngine(), output, 64);
+
+        assertEquals(transactions.size(), records);
+        assertEquals(expectedScores(transactions), Files.readString(output));
+    }
+
+    @Test
+    void testReplay_BinaryAcrossMappingWindows() throws IOException {
+        List<Transaction> transactions = TransactionEngineTest.randomTransactions(new Random(37), 500);
+        ByteBuffer buffer = ByteBuffer.allocate(transactions.size() * TransactionRecord.SIZE);
+        for (Transaction txn : transactions) {
+            TransactionRecord.write(buffer, txn);
+        }
+        Path input = tempDir.resolve("history.bin");
+        Path output = tempDir.resolve("scores.csv");
+        Files.write(input, buffer.array());
+
+        long records = TransactionReplay.replay(input, TransactionReplay.Format.of(input), new TransactionEngine(), output, 3 * TransactionRecord.SIZE);
+
+        assertEquals(transactions.size(), records);
+        assertEquals(expectedScores(transactions), Files.readString(output));
+    }
+
+    @Test
+    void testReplay_NegativeAmountsAndBlankLines() throws IOException {
+        Path input = tempDir.resolve("history.csv");
+        Path output = tempDir.resolve("scores.csv");
+        Files.writeString(input, "1,5,-2147483648,false\n\n2,5,300,TRUE\n");
+
+        assertEquals(2, TransactionReplay.replay(input, TransactionReplay.Format.CSV, new TransactionEngine(), output));
+        assertEquals("1,0\n2,300\n", Files.readString(output));
+    }
+
+    @Test
+    void testReplay_MalformedCsvReportsOffset() throws IOException {
+        Path input = tempDir.resolve("history.csv");
+        Files.writeString(input, "1,5,100,true\n2,x,100,true\n");
+
+        IOException e = assertThrows(IOException.class, () ->
+                TransactionReplay.replay(input, TransactionReplay.Format.CSV, new TransactionEngine(), tempDir.resolve("scores.csv")));
+        assertTrue(e.getMessage().contains("byte 15"));
+    }
+
+    @Test
+    void testReplay_TruncatedBinaryFile() throws IOException {
+        Path input = tempDir.resolve("history.bin");
+        Files.write(input, new byte[TransactionRecord.SIZE + 3]);
+
+        assertThrows(IOException.class, () ->
+                TransactionReplay.replay(input, TransactionReplay.Format.BINARY, new TransactionEngine(), tempDir.resolve("scores.csv")));
+    }
+}
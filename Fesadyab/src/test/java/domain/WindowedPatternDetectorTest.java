@@ -0,0 +1,83 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowedPatternDetectorTest {
+
+    private static final int[] AMOUNTS = {500, 1000, 1200, 1500, 1800, 2100};
+
+    @Test
+    void testPattern_EmptyWindow() {
+        WindowedPatternDetector detector = new WindowedPatternDetector(1000, true);
+
+        assertEquals(0, detector.pattern(new RingTransactionStore(4)));
+    }
+
+    @Test
+    void testEvict_PatternFollowsTheNewAnchor() {
+        TransactionHistory history = new TransactionHistory(new RingTransactionStore(3));
+        history.append(1, 1, 1500, true);
+        history.append(2, 1, 1200, true);
+        history.append(3, 1, 1500, true);
+        assertEquals(0, history.getPatternAboveThreshold(1000));
+
+        // 1500 leaves: the window is 1200, 1500, 1800
+        history.append(4, 1, 1800, true);
+        assertEquals(300, history.getPatternAboveThreshold(1000));
+
+        // 1200 leaves: the window is 1500, 1800, 1800, where the second 1800 breaks the pattern
+        history.append(5, 1, 1800, true);
+        assertEquals(0, history.getPatternAboveThreshold(1000));
+
+        // 1500 leaves: the window is 1800, 1800, 2100 and the broken pattern is gone with it
+        history.append(6, 1, 2100, true);
+        assertEquals(300, history.getPatternAboveThreshold(1000));
+    }
+
+    @Test
+    void testPattern_MatchesRescanOfEverySlidingWindow() {
+        Random random = new Random(113);
+        TransactionHistory history = new TransactionHistory(new RingTransactionStore(5));
+        history.getPatternAboveThreshold(1000);
+        history.getPatternAboveThreshold(1200);
+        int patterns = 0;
+
+        for (int i = 0; i < 20_000; i++) {
+            history.append(i, 1, AMOUNTS[random.nextInt(AMOUNTS.length)], true);
+
+            for (int threshold : new int[]{1000, 1200}) {
+                ThresholdPatternDetector rescan = new ThresholdPatternDetector(threshold);
+                rescan.scan(history.store);
+                assertEquals(rescan.pattern(), history.getPatternAboveThreshold(threshold));
+                if (rescan.pattern() != 0) {
+                    patterns++;
+                }
+            }
+        }
+
+        assertTrue(patterns > 0);
+        assertEquals(2, history.patternDetectors.length);
+    }
+
+    @Test
+    void testPattern_UnboundedMatchesThresholdPatternDetector() {
+        Random random = new Random(127);
+        for (int run = 0; run < 500; run++) {
+            ColumnarTransactionStore store = new ColumnarTransactionStore();
+            WindowedPatternDetector windowed = new WindowedPatternDetector(1000, false);
+            ThresholdPatternDetector detector = new ThresholdPatternDetector(1000);
+
+            for (int i = 0; i < 12; i++) {
+                int amount = AMOUNTS[random.nextInt(AMOUNTS.length)];
+                store.append(i, 1, amount, true);
+                windowed.append(amount);
+                detector.accept(i, amount);
+                assertEquals(detector.pattern(), windowed.pattern(store));
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReplay_ReturnsRecordsInAppendOrder() throws IOException {
+        Path path = tempDir.resolve("wal.log");
+        try (WriteAheadLog log = new WriteAheadLog(path, 32)) {
+            for (int i = 0; i < 10; i++) {
+                long sequence = log.append(i, i % 3, i * 100, i % 2 == 0);
+                assertEquals(i + 1, sequence);
+            }
+            log.sync(10);
+        }
+
+        List<int[]> records = new ArrayList<>();
+        long count = WriteAheadLog.replay(path, (transactionId, accountId, amount, isDebit) ->
+                records.add(new int[]{transactionId, accountId, amount, isDebit ? 1 : 0}));
+
+        assertEquals(10, count);
+        for (int i = 0; i < 10; i++) {
+            assertArrayEquals(new int[]{i, i % 3, i * 100, i % 2 == 0 ? 1 : 0}, records.get(i));
+        }
+    }
+
+    @Test
+    void testOpen_DropsTornTailAndContinuesSequence() throws IOException {
+        Path path = tempDir.resolve("wal.log");
+        try (WriteAheadLog log = new WriteAheadLog(path)) {
+            log.append(1, 1, 100, true);
+            log.append(2, 1, 200, false);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(WriteAheadLog.RECORD_SIZE + 5);
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(path)) {
+            assertEquals(2, log.append(3, 1, 300, false));
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        WriteAheadLog.replay(path, (transactionId, accountId, amount, isDebit) -> ids.add(transactionId));
+        assertEquals(List.of(1, 3), ids);
+    }
+
+    @Test
+    void testOpen_DropsWholeTornRecordsAtTheTail() throws IOException {
+        Path path = tempDir.resolve("wal.log");
+        try (WriteAheadLog log = new WriteAheadLog(path)) {
+            for (int i = 1; i <= 4; i++) {
+                log.append(i, 1, i * 100, false);
+            }
+        }
+        // The last two records reached their full length but not their contents
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(2 * WriteAheadLog.RECORD_SIZE), 2 * WriteAheadLog.RECORD_SIZE);
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        assertEquals(2, WriteAheadLog.replay(path, (transactionId, accountId, amount, isDebit) -> ids.add(transactionId)));
+        assertEquals(List.of(1, 2), ids);
+        try (WriteAheadLog log = new WriteAheadLog(path)) {
+            assertEquals(3, log.append(5, 1, 500, false));
+        }
+    }
+
+    @Test
+    void testReplay_FailsOnCorruptRecordBeforeValidOnes() throws IOException {
+        Path path = tempDir.resolve("wal.log");
+        try (WriteAheadLog log = new WriteAheadLog(path)) {
+            for (int i = 1; i <= 3; i++) {
+                log.append(i, 1, i * 100, false);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), WriteAheadLog.RECORD_SIZE + TransactionRecord.AMOUNT_OFFSET);
+        }
+
+        assertThrows(IOException.class, () -> WriteAheadLog.replay(path, (transactionId, accountId, amount, isDebit) -> {
+        }));
+        assertThrows(IOException.class, () -> new WriteAheadLog(path));
+        assertEquals(3 * WriteAheadLog.RECORD_SIZE, Files.size(path));
+    }
+
+    @Test
+    void testSync_ConcurrentCallersShareFlushes() throws Exception {
+        int threads = 8;
+        int perThread = 200;
+        Path path = tempDir.resolve("wal.log");
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try (WriteAheadLog log = new WriteAheadLog(path)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        log.sync(log.append(thread * perThread + i, thread, 100, false));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            assertTrue(log.getFlushCount() <= threads * perThread);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(threads * perThread, WriteAheadLog.replay(path, (transactionId, accountId, amount, isDebit) -> {
+        }));
+    }
+
+    @Test
+    void testReplay_MissingFile() throws IOException {
+        assertEquals(0, WriteAheadLog.replay(tempDir.resolve("missing.log"), (transactionId, accountId, amount, isDebit) -> fail("no records")));
+    }
+}